@@ -18,8 +18,35 @@ dependencies {
     implementation("org.jetbrains:annotations:24.0.1")
 }
 
+// The Vector API speeds up wc; without the module wc falls back to scalar code
+val vectorModule = "--add-modules=jdk.incubator.vector"
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.add(vectorModule)
+}
+
+tasks.withType<Test> {
+    jvmArgs(vectorModule)
+}
+
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs throughput and latency benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    maxHeapSize = "2g"
+    testLogging {
+        showStandardStreams = true
+    }
 }
 
 sourceSets {
@@ -37,6 +64,7 @@ sourceSets {
 
 application {
     mainClass.set("cli.Main")
+    applicationDefaultJvmArgs = listOf(vectorModule)
 }
 
 tasks.getByName("run", JavaExec::class) {
@@ -5,6 +5,7 @@ import cli.environment.EnvironmentImpl;
 import cli.exceptions.ExitCommandException;
 import cli.exceptions.ParseException;
 import cli.exceptions.TerminalErrorException;
+import cli.ioenvironment.StandardStreams;
 import cli.model.ParsedInput;
 import cli.parser.ParserImpl;
 import cli.pipelineexecutor.PipelineExecutorImpl;
@@ -12,39 +13,42 @@ import cli.pipelineexecutor.PipelineExecutorImpl;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
 
     public static void main(String[] args) throws Exception {
         EnvironmentImpl environment = new EnvironmentImpl();
         ParserImpl parser = new ParserImpl(environment);
-        CommandExecutorImpl commandExecutor = new CommandExecutorImpl(environment);
-        PipelineExecutorImpl pipelineExecutor = new PipelineExecutorImpl(commandExecutor);
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-        PrintWriter writer = new PrintWriter(System.out); // Added semicolon here
+        BufferedReader reader = new BufferedReader(new InputStreamReader(StandardStreams.INPUT));
+        PrintWriter writer = new PrintWriter(StandardStreams.OUTPUT);
 
-        while (true) {
-            writer.print("> ");
-            writer.flush();
-            String input = reader.readLine();
+        try (ExecutorService scheduler = Executors.newVirtualThreadPerTaskExecutor();
+             PipelineExecutorImpl pipelineExecutor = new PipelineExecutorImpl(new CommandExecutorImpl(environment, scheduler), scheduler)) {
+            while (true) {
+                writer.print("> ");
+                writer.flush();
+                String input = reader.readLine();
 
-            if (input == null) {
-                break;
-            }
+                if (input == null) {
+                    break;
+                }
 
-            try {
-                ParsedInput parsedInput = parser.parse(input);
-                pipelineExecutor.execute(parsedInput, System.in, System.out, System.out);
-            } catch (Exception e) {
-                if (e.getCause() instanceof ExitCommandException) {
-                    return;
-                } else if (e instanceof TerminalErrorException) {
-                    continue;
-                } else if (e instanceof ParseException){
-                    System.err.println(e.getMessage());
-                    continue;
+                try {
+                    ParsedInput parsedInput = parser.parse(input);
+                    pipelineExecutor.execute(parsedInput, StandardStreams.INPUT, StandardStreams.OUTPUT, StandardStreams.ERROR);
+                } catch (Exception e) {
+                    if (e instanceof ExitCommandException) {
+                        return;
+                    } else if (e instanceof TerminalErrorException) {
+                        continue;
+                    } else if (e instanceof ParseException){
+                        StandardStreams.ERROR.println(e.getMessage());
+                        continue;
+                    }
+                    throw e;
                 }
-                throw e;
             }
         }
     }
@@ -5,24 +5,41 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cli.commandexecutor.commands.*;
 import cli.environment.Environment;
+import cli.exceptions.BrokenPipeException;
 import cli.exceptions.ExitCommandException;
+import cli.ioenvironment.FlushPolicy;
 import cli.ioenvironment.IOEnvironmentImpl;
+import cli.ioenvironment.StandardStreams;
 import cli.model.Command;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * The CommandExecutorImpl class implements the CommandExecutor interface.
  * It is responsible for executing both built-in and external commands.
+ * Streams of external processes are transferred by tasks of the scheduler,
+ * which is supposed to be shared with the pipeline executor.
  */
-public class CommandExecutorImpl implements CommandExecutor {
+public class CommandExecutorImpl implements ExternalCommandExecutor {
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
     private final Environment environment;
+    private final ExecutorService scheduler;
     private final Map<String, InternalCommandExecutor> builtInCommands = new HashMap<>();
 
     public CommandExecutorImpl(Environment environment) {
+        this(environment, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public CommandExecutorImpl(Environment environment, ExecutorService scheduler) {
         this.environment = environment;
+        this.scheduler = scheduler;
         registerBuiltInCommands();
 
     }
@@ -31,7 +48,7 @@ public class CommandExecutorImpl implements CommandExecutor {
         builtInCommands.put("pwd", new PwdExecutor());
         builtInCommands.put("cat", new CatExecutor());
         builtInCommands.put("echo", new EchoExecutor());
-        builtInCommands.put("wc", new WcExecutor());
+        builtInCommands.put("wc", new WcExecutor(scheduler));
         builtInCommands.put("exit", new ExitExecutor());
         builtInCommands.put("=", new SetEnvironmentExecutor(environment));
         builtInCommands.put("grep", new GrepExecutor());
@@ -39,40 +56,189 @@ public class CommandExecutorImpl implements CommandExecutor {
 
     private int executeBuiltIn(@NotNull Command command, InputStream input, OutputStream output, OutputStream error) throws ExitCommandException {
         InternalCommandExecutor executor = builtInCommands.get(command.name());
-        if (executor != null) {
-            return executor.execute(command.args(), command.options(), new IOEnvironmentImpl(input, output, error));
+        if (executor == null) {
+            return 1;
+        }
+        // A StreamingCommandExecutor gets the environment as a StreamingIOEnvironment, see its default execute
+        IOEnvironmentImpl ioEnvironment = new IOEnvironmentImpl(input, output, error, flushPolicy(output));
+        int result = executor.execute(command.args(), command.options(), ioEnvironment);
+        try {
+            ioEnvironment.flush();
+        } catch (BrokenPipeException e) {
+            return 1;
+        } catch (IOException e) {
+            ioEnvironment.writeError(command.name() + ": cannot write to output stream" + System.lineSeparator());
+            return 1;
         }
-        return 1;
+        return result;
     }
 
-    private int executeExternal(@NotNull Command command, InputStream input, OutputStream output, OutputStream error) {
+    /**
+     * Output to an interactive terminal is flushed line by line, output to pipes and files is flushed in blocks.
+     */
+    private FlushPolicy flushPolicy(OutputStream output) {
+        return output == StandardStreams.OUTPUT && System.console() != null ? FlushPolicy.LINE : FlushPolicy.BLOCK;
+    }
+
+    private ProcessBuilder createProcessBuilder(@NotNull Command command) {
         List<String> commandWithArgs = new ArrayList<>();
         commandWithArgs.add(command.name());
         commandWithArgs.addAll(command.args());
         ProcessBuilder processBuilder = new ProcessBuilder(commandWithArgs);
         processBuilder.directory(new File(System.getProperty("user.dir")));
-        processBuilder.redirectErrorStream(true);
+        return processBuilder;
+    }
+
+    private int executeExternal(@NotNull Command command, InputStream input, OutputStream output, OutputStream error) {
+        return executeExternalPipeline(List.of(command), input, output, error);
+    }
+
+    /**
+     * Lets the processes use the terminal directly instead of copying their streams through the JVM:
+     * the first process reads the interpreter standard input, the last process writes to its standard output
+     * and all processes write errors to its standard error, if the pipeline is attached to them.
+     */
+    void redirectTerminalStreams(@NotNull List<ProcessBuilder> processBuilders, InputStream input, OutputStream output, OutputStream error) {
+        if (input == StandardStreams.INPUT) {
+            processBuilders.getFirst().redirectInput(ProcessBuilder.Redirect.INHERIT);
+        }
+        if (output == StandardStreams.OUTPUT) {
+            StandardStreams.OUTPUT.flush();
+            processBuilders.getLast().redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        }
+        if (error == StandardStreams.ERROR) {
+            StandardStreams.ERROR.flush();
+            for (ProcessBuilder processBuilder : processBuilders) {
+                processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            }
+        }
+    }
+
+    /**
+     * Executes consecutive external commands with {@link ProcessBuilder#startPipeline},
+     * so the data between them is passed by the operating system and never copied through the JVM.
+     * Only the input of the first process and the output of the last process are transferred here,
+     * unless they are the terminal, which the processes then use directly.
+     * The input is pumped and the error streams are drained by scheduler tasks,
+     * while the output is drained by the calling thread, so all of them are transferred concurrently.
+     *
+     * @param commands The external commands to execute.
+     * @param input    The input stream for the first command.
+     * @param output   The output stream for the last command.
+     * @param error    The error stream for all commands.
+     * @return the exit code of the last command, like the status of a pipeline in a POSIX shell,
+     * so an upstream process killed by SIGPIPE after the last one exited does not fail the pipeline.
+     */
+    @Override
+    public int executeExternalPipeline(@NotNull List<Command> commands, InputStream input, OutputStream output, OutputStream error) {
+        List<ProcessBuilder> processBuilders = new ArrayList<>();
+        for (Command command : commands) {
+            processBuilders.add(createProcessBuilder(command));
+        }
+        redirectTerminalStreams(processBuilders, input, output, error);
+        List<Process> processes = List.of();
+        Future<?> inputPump = null;
+        List<Future<?>> errorDrains = new ArrayList<>();
         try {
-            Process process = processBuilder.start();
-            if (input != System.in) {
-                try (OutputStream processInput = process.getOutputStream()) {
-                    input.transferTo(processInput);
+            processes = ProcessBuilder.startPipeline(processBuilders);
+            if (input != StandardStreams.INPUT) {
+                OutputStream processInput = processes.getFirst().getOutputStream();
+                inputPump = scheduler.submit(() -> pumpInput(input, processInput));
+            }
+            if (error != StandardStreams.ERROR) {
+                for (Process process : processes) {
+                    InputStream processError = process.getErrorStream();
+                    errorDrains.add(scheduler.submit(() -> drainError(processError, error)));
+                }
+            }
+            if (output != StandardStreams.OUTPUT) {
+                try (InputStream processOutput = processes.getLast().getInputStream()) {
+                    copy(processOutput, output);
                 }
             }
-            try (InputStream processOutput = process.getInputStream()) {
-                processOutput.transferTo(output);
+            int result = 0;
+            for (Process process : processes) {
+                result = process.waitFor();
+            }
+            for (Future<?> errorDrain : errorDrains) {
+                errorDrain.get();
             }
-            return process.waitFor();
-        } catch (IOException | InterruptedException e) {
+            return result;
+        } catch (BrokenPipeException e) {
+            processes.forEach(Process::destroy); // The next command does not read the output anymore
+            return 1;
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            processes.forEach(Process::destroy);
             try {
                 error.write(("Error executing external command: " + e.getMessage() + System.lineSeparator()).getBytes());
             } catch (IOException ee) {
 
             }
             return 1;
+        } finally {
+            if (inputPump != null) {
+                inputPump.cancel(true); // The processes are gone, the rest of the input is not needed
+            }
+        }
+    }
+
+    /**
+     * Copies the input into the standard input of the process and closes it to signal EOF.
+     * A failed write means that the process does not read its input anymore, which is not an error.
+     */
+    private void pumpInput(InputStream input, OutputStream processInput) {
+        try (processInput) {
+            copy(input, processInput);
+        } catch (IOException e) {
+
         }
     }
 
+    /**
+     * Copies the input to the output until the end of the input.
+     * {@link InputStream#transferTo} is not used because the process streams run it inside their monitor:
+     * a virtual thread blocked there on a full pipe would pin its carrier thread,
+     * and the stage reading the pipe could then never run to close it.
+     */
+    private static void copy(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Copies the error stream of the process chunk by chunk, so errors of several processes are not interleaved.
+     */
+    private Void drainError(InputStream processError, OutputStream error) throws IOException {
+        try (processError) {
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            int read;
+            while ((read = processError.read(buffer)) != -1) {
+                synchronized (error) {
+                    error.write(buffer, 0, read);
+                    error.flush();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the command is not a built-in one and is run as a separate process.
+     *
+     * @param command The command to check.
+     * @return true if the command is external.
+     */
+    @Override
+    public boolean isExternal(@NotNull Command command) {
+        return !builtInCommands.containsKey(command.name());
+    }
+
     /**
      * Executes a command (either built-in or external).
      * The method first checks if the command is a built-in command.
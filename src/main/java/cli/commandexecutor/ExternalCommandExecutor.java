@@ -0,0 +1,35 @@
+package cli.commandexecutor;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import cli.model.Command;
+
+/**
+ * The ExternalCommandExecutor interface is implemented by command executors
+ * which run some commands as separate operating system processes.
+ * PipelineExecutorImpl groups consecutive external commands of a pipeline into one stage
+ * and passes them to {@link #executeExternalPipeline}, so the processes are connected with each other directly.
+ */
+public interface ExternalCommandExecutor extends CommandExecutor {
+    /**
+     * Checks whether the command is run as a separate operating system process.
+     *
+     * @param command The command to check.
+     * @return true if the command is external.
+     */
+    boolean isExternal(Command command);
+
+    /**
+     * Executes consecutive external commands, connecting each process output directly
+     * to the input of the next process with an operating system pipe.
+     *
+     * @param commands The external commands to execute.
+     * @param input    The input stream for the first command.
+     * @param output   The output stream for the last command.
+     * @param error    The error stream for all commands.
+     * @return the exit code of the last command.
+     */
+    int executeExternalPipeline(List<Command> commands, InputStream input, OutputStream output, OutputStream error);
+}
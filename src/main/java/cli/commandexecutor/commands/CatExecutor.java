@@ -1,27 +1,51 @@
 package cli.commandexecutor.commands;
 
-import cli.ioenvironment.IOEnvironment;
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import cli.ioenvironment.StreamingIOEnvironment;
 import cli.model.CommandOptions;
 
 import java.io.*;
-import java.nio.file.Files;
-
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.util.List;
 
 /**
- * The CatExecutor class implements the InternalCommandExecutor interface
+ * The CatExecutor class implements the StreamingCommandExecutor interface
  * and provides functionality similar to the Unix "cat" command.
  * It reads and outputs file contents or standard input data.
  */
-public class CatExecutor implements InternalCommandExecutor {
+public class CatExecutor implements StreamingCommandExecutor {
     private final static String HELP_MESSAGE = "Get files' content\n";
     private final static String FLAG_HELP_MESSAGE = "help";
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private int copyInput(StreamingIOEnvironment ioEnvironment) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (true) {
+            int read;
+            try {
+                read = ioEnvironment.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                ioEnvironment.writeError("cat: error reading input stream" + System.lineSeparator());
+                return 1;
+            }
+            if (read == -1) {
+                return 0;
+            }
+            try {
+                ioEnvironment.writeOutput(buffer, 0, read);
+            } catch (IOException e) {
+                ioEnvironment.writeError("cat: cannot write data to output stream" + System.lineSeparator());
+                return 1;
+            }
+        }
+    }
 
     /**
      * Executes the "cat" command.
-     * If no args are provided, it reads from the input stream.
-     * Else it reads and returns the content of the files provided.
+     * If no args are provided, it copies the input stream to the output chunk by chunk.
+     * Else it streams the content of the files provided to the output one after another.
      * If the "help" option is specified, it returns a help message.
      *
      * @param args          List of file names to be read.
@@ -30,7 +54,7 @@ public class CatExecutor implements InternalCommandExecutor {
      * @return CommandResult containing the execution status and output.
      */
     @Override
-    public int execute(List<String> args, CommandOptions options, IOEnvironment ioEnvironment) {
+    public int execute(List<String> args, CommandOptions options, StreamingIOEnvironment ioEnvironment) {
         if (options != null && options.containsOption(FLAG_HELP_MESSAGE)) {
             try {
                 ioEnvironment.writeOutput(HELP_MESSAGE);
@@ -40,31 +64,23 @@ public class CatExecutor implements InternalCommandExecutor {
             }
             return 0;
         }
-        StringBuilder stringBuilder = new StringBuilder();
         if (args.isEmpty()) {
-            try {
-                String text = ioEnvironment.read();
-                ioEnvironment.writeOutput(text);
-                return 0;
-            } catch (IOException e) {
-                ioEnvironment.writeError("cat: error reading input stream" + System.lineSeparator());
-                return 1;
-            }
+            return copyInput(ioEnvironment);
         }
         for (String file : args) {
-            Path filePath = Path.of(file);
+            FileInput input;
             try {
-                stringBuilder.append(Files.readString(filePath));
-            } catch (IOException e) {
+                input = FileInputFactory.open(Path.of(file));
+            } catch (IOException | InvalidPathException e) {
                 ioEnvironment.writeError("cat: cannot read file " + file + System.lineSeparator());
                 return 1;
             }
-        }
-        try {
-            ioEnvironment.writeOutput(stringBuilder.toString());
-        } catch (IOException e) {
-            ioEnvironment.writeError("cat: cannot write data to output stream" + System.lineSeparator());
-            return 1;
+            try (input) {
+                input.transferTo(ioEnvironment);
+            } catch (IOException e) {
+                ioEnvironment.writeError("cat: cannot copy file " + file + " to output stream" + System.lineSeparator());
+                return 1;
+            }
         }
         return 0;
     }
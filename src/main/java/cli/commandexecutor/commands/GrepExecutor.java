@@ -1,140 +1,573 @@
 package cli.commandexecutor.commands;
 
-import cli.ioenvironment.IOEnvironment;
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import cli.commandexecutor.grep.BytePattern;
+import cli.commandexecutor.grep.ByteGrepSearcher;
+import cli.commandexecutor.grep.ContextPrinter;
+import cli.commandexecutor.grep.DirectoryWalker;
+import cli.commandexecutor.grep.GrepPattern;
+import cli.commandexecutor.grep.GrepPatternCache;
+import cli.commandexecutor.grep.LineMatcher;
+import cli.commandexecutor.grep.OrderedOutput;
+import cli.commandexecutor.grep.ParallelGrepSearcher;
+import cli.commandexecutor.grep.PatternOptions;
+import cli.ioenvironment.LineEncoder;
+import cli.ioenvironment.LineReader;
+import cli.ioenvironment.StreamingIOEnvironment;
 import cli.model.CommandOptions;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.regex.PatternSyntaxException;
 
 /**
- * The GrepExecutor class implements the InternalCommandExecutor interface
+ * The GrepExecutor class implements the StreamingCommandExecutor interface
  * and provides functionality similar to the Unix "grep" command.
  * It searches for lines matching a specified pattern in a file or input stream.
  */
-public class GrepExecutor implements InternalCommandExecutor {
+public class GrepExecutor implements StreamingCommandExecutor {
 
     // ANSI color codes
     private static final String ANSI_RESET = "\u001B[0m";
     private static final String ANSI_RED = "\u001B[31m";
+    private static final long PARALLEL_THRESHOLD = 32 * 1024 * 1024;
+    private static final int MAX_OPEN_FILES = 16;
+    private static final String STANDARD_INPUT = "(standard input)";
+
+    private final ForkJoinPool pool;
+    private final GrepPatternCache patternCache;
+    private final long parallelThreshold;
+    private final long chunkSize;
+
+    public GrepExecutor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool which searches large files in parallel chunks.
+     */
+    public GrepExecutor(ForkJoinPool pool) {
+        this(pool, GrepPatternCache.shared());
+    }
+
+    /**
+     * @param pool         pool which searches large files in parallel chunks.
+     * @param patternCache cache of the compiled patterns.
+     */
+    public GrepExecutor(ForkJoinPool pool, GrepPatternCache patternCache) {
+        this(pool, patternCache, PARALLEL_THRESHOLD, ParallelGrepSearcher.CHUNK_SIZE);
+    }
+
+    GrepExecutor(ForkJoinPool pool, long parallelThreshold, long chunkSize) {
+        this(pool, GrepPatternCache.shared(), parallelThreshold, chunkSize);
+    }
+
+    GrepExecutor(ForkJoinPool pool, GrepPatternCache patternCache, long parallelThreshold, long chunkSize) {
+        this.pool = pool;
+        this.patternCache = patternCache;
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the line with all matches of the pattern highlighted with red color.
+     * The spans between the matches are encoded straight from the line, without building a colored copy of it.
+     *
+     * @param line    the input line
+     * @param matcher the matcher of the pattern
+     * @param output  the encoder of the output line
+     */
+    private static void highlightMatches(CharSequence line, LineMatcher matcher, LineEncoder output) throws IOException {
+        int position = 0;
+        int from = 0;
+        while (from <= line.length() && matcher.find(line, from)) {
+            if (matcher.end() > matcher.start()) {
+                output.append(line, position, matcher.start())
+                        .append(ANSI_RED).append(line, matcher.start(), matcher.end()).append(ANSI_RESET);
+                position = matcher.end();
+            }
+            from = Math.max(matcher.end(), matcher.start() + 1);
+        }
+        output.append(line, position, line.length());
+    }
 
     /**
-     * Highlights all matches of the pattern in the line with red color
+     * Parses the number given to the option, the last one if the option is repeated.
      *
-     * @param line   the input line
-     * @param pattern the compiled pattern to match
-     * @return the line with highlighted matches
+     * @return the number, or -1 if it is missing or invalid.
      */
-    private String highlightMatches(String line, Pattern pattern) {
-        Matcher matcher = pattern.matcher(line);
-        StringBuilder coloredLine = new StringBuilder();
+    private static int numberOption(String flag, CommandOptions options, List<String> args, boolean[] taken) {
+        List<String> values = optionValues(flag, options, args, taken);
+        return values == null ? -1 : parseNumber(values.getLast());
+    }
 
-        while (matcher.find()) {
-            matcher.appendReplacement(coloredLine, ANSI_RED + matcher.group() + ANSI_RESET);
+    /**
+     * Returns the values of all occurrences of the option in the order they are given.
+     * A value is given either with '=' ({@code -A=2}) or as the positional argument right after the option
+     * ({@code -A 2}), such an argument is marked as taken.
+     * Options which were not parsed from a command line have no recorded occurrences,
+     * then their values are used, or the first argument which is not taken yet if there are none.
+     *
+     * @return the values, or null if an occurrence of the option has no value.
+     */
+    private static List<String> optionValues(String flag, CommandOptions options, List<String> args, boolean[] taken) {
+        List<String> values = new ArrayList<>();
+        boolean occurred = false;
+        for (CommandOptions.Occurrence occurrence : options.getOccurrences()) {
+            if (!occurrence.key().equals(flag)) {
+                continue;
+            }
+            occurred = true;
+            if (occurrence.value() != null) {
+                values.add(occurrence.value());
+            } else if (occurrence.argumentIndex() >= 0 && occurrence.argumentIndex() < args.size()) {
+                taken[occurrence.argumentIndex()] = true;
+                values.add(args.get(occurrence.argumentIndex()));
+            } else {
+                return null;
+            }
+        }
+        if (occurred) {
+            return values;
         }
-        matcher.appendTail(coloredLine);
+        List<String> givenValues = options.getAllOptionValues(flag);
+        if (givenValues != null && !givenValues.isEmpty()) {
+            return givenValues;
+        }
+        for (int i = 0; i < args.size(); i++) {
+            if (!taken[i]) {
+                taken[i] = true;
+                return List.of(args.get(i));
+            }
+        }
+        return null;
+    }
+
+    private static int usageError(StreamingIOEnvironment ioEnvironment) {
+        ioEnvironment.writeError("grep: invalid number of arguments or empty input stream" + System.lineSeparator() +
+                "grep [options] [-A <number>] [-B <number>] (<pattern> | -e <pattern>... | -f <file>...) [file]..." + System.lineSeparator());
+        return 1;
+    }
 
-        return coloredLine.toString();
+    /**
+     * @return the non-negative number, or -1 if the value is not one.
+     */
+    private static int parseNumber(String value) {
+        try {
+            int number = Integer.parseInt(value);
+            return number >= 0 ? number : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
+    /**
+     * Executes the "grep" command.
+     * Lines are matched one by one as they are read, matching lines and their context are printed immediately,
+     * so the input of any size is processed in memory proportional to the length of a line.
+     * Files are searched for plain strings in their bytes, only the lines which are printed are decoded.
+     * Large files are split into chunks which are searched in parallel, the output keeps the order of the file.
+     * Compiled patterns are reused from the pattern cache.
+     * -i - case-insensitive matching.
+     * -w - match only whole words.
+     * -F - the pattern is a plain string, not a regular expression.
+     * -e PATTERN - search for the pattern, can be repeated to search for several patterns.
+     * -f FILE - search for the patterns listed in the file, one per line.
+     * -A N - print N lines after each matching line.
+     * -B N - print N lines before each matching line.
+     * --color - highlight the matches.
+     * -m N - stop after N matching lines, printing only the context after the last of them.
+     * -c - print only the number of matching lines.
+     * -l - print only the names of the files with matching lines.
+     * -q - print nothing, the status is 0 if a line matches and 1 otherwise.
+     * The search stops reading the input as soon as the result is known, with -l and -q at the first match.
+     * -r - search the files of directories recursively.
+     * --max-depth=N - search only N levels of directories.
+     * --exclude=GLOB - skip the files with names matching the glob.
+     * --exclude-dir=GLOB - skip the directories with names matching the glob.
+     * If several files or a directory are searched, every line is printed with the name of its file.
+     *
+     * @param args          the values of -A, -B, -m, -e and -f given right after them, the pattern if neither -e nor -f is given
+     *                      and the optional file names.
+     * @param options       Command flags.
+     * @param ioEnvironment input, output and error streams
+     * @return the execution status.
+     */
     @Override
-    public int execute(List<String> args, CommandOptions options, IOEnvironment ioEnvironment) {
-        String patternStr;
-        String fileName = null;
-        boolean useFile = false;
-        boolean colorOutput = options.containsOption("c") || options.containsOption("color");
+    public int execute(List<String> args, CommandOptions options, StreamingIOEnvironment ioEnvironment) {
+        boolean colorOutput = options.containsOption("color");
+        boolean wholeWord = options.containsOption("w");
+        boolean ignoreCase = options.containsOption("i");
+        boolean fixedStrings = options.containsOption("F");
 
-        try {
-            boolean wholeWord = options.containsOption("w");
-            boolean ignoreCase = options.containsOption("i");
-            int afterContext = 0;
-
-            if (options.containsOption("A")) {
-                if (args.size() < 2) {
-                    ioEnvironment.writeError("grep: invalid number of arguments or empty input stream" + System.lineSeparator() +
-                            "grep [options] -A <number> <pattern> [file]" + System.lineSeparator());
-                    return 1;
-                }
+        boolean[] taken = new boolean[args.size()];
+        int afterContext = 0;
+        int beforeContext = 0;
+        if (options.containsOption("A")) {
+            afterContext = numberOption("A", options, args, taken);
+            if (afterContext < 0) {
+                ioEnvironment.writeError("grep: Invalid number for -A option" + System.lineSeparator());
+                return 1;
+            }
+        }
+        if (options.containsOption("B")) {
+            beforeContext = numberOption("B", options, args, taken);
+            if (beforeContext < 0) {
+                ioEnvironment.writeError("grep: Invalid number for -B option" + System.lineSeparator());
+                return 1;
+            }
+        }
+        long maxCount = Long.MAX_VALUE;
+        if (options.containsOption("m")) {
+            maxCount = numberOption("m", options, args, taken);
+            if (maxCount < 0) {
+                ioEnvironment.writeError("grep: Invalid number for -m option" + System.lineSeparator());
+                return 1;
+            }
+        }
+        OutputMode mode = options.containsOption("q") ? OutputMode.QUIET
+                : options.containsOption("l") ? OutputMode.FILES_WITH_MATCHES
+                : options.containsOption("c") ? OutputMode.COUNT : OutputMode.LINES;
+        int maxDepth = DirectoryWalker.UNLIMITED_DEPTH;
+        if (options.containsOption("max-depth")) {
+            maxDepth = parseNumber(options.getFirstOptionValues("max-depth"));
+            if (maxDepth < 0) {
+                ioEnvironment.writeError("grep: Invalid number for --max-depth option" + System.lineSeparator());
+                return 1;
+            }
+        }
+        List<String> patterns = new ArrayList<>();
+        if (options.containsOption("e")) {
+            List<String> values = optionValues("e", options, args, taken);
+            if (values == null) {
+                return usageError(ioEnvironment);
+            }
+            patterns.addAll(values);
+        }
+        if (options.containsOption("f")) {
+            List<String> patternFiles = optionValues("f", options, args, taken);
+            if (patternFiles == null) {
+                return usageError(ioEnvironment);
+            }
+            for (String patternFile : patternFiles) {
                 try {
-                    afterContext = Integer.parseInt(args.get(0));
-                    patternStr = args.get(1);
-                    if (args.size() > 2) {
-                        fileName = args.get(2);
-                        useFile = true;
-                    }
-                } catch (NumberFormatException e) {
-                    ioEnvironment.writeError("grep: Invalid number for -A option" + System.lineSeparator());
+                    patterns.addAll(Files.readAllLines(Path.of(patternFile), ioEnvironment.charset()));
+                } catch (IOException | InvalidPathException e) {
+                    ioEnvironment.writeError("grep: " + patternFile + ": " + (e instanceof IOException io ? describe(io) : "No such file or directory") + System.lineSeparator());
                     return 1;
                 }
-            } else {
-                if (args.size() < 1) {
-                    ioEnvironment.writeError("grep: invalid number of arguments or empty input stream" + System.lineSeparator() +
-                            "grep [options] <pattern> [file]" + System.lineSeparator());
-                    return 1;
+            }
+        }
+        List<String> fileNames = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            if (!taken[i]) {
+                fileNames.add(args.get(i));
+            }
+        }
+        if (!options.containsOption("e") && !options.containsOption("f")) {
+            if (fileNames.isEmpty()) {
+                return usageError(ioEnvironment);
+            }
+            patterns.add(fileNames.removeFirst());
+        }
+        boolean recursive = options.containsOption("r");
+        if (recursive && fileNames.isEmpty()) {
+            fileNames = List.of(".");
+        }
+
+        if (fileNames.size() == 1 && !Files.exists(Path.of(fileNames.getFirst()))) {
+            ioEnvironment.writeError("grep: " + fileNames.getFirst() + ": No such file or directory" + System.lineSeparator());
+            return 1;
+        }
+
+        GrepPattern pattern;
+        try {
+            pattern = patternCache.compile(patterns, new PatternOptions(fixedStrings, ignoreCase, wholeWord));
+        } catch (PatternSyntaxException e) {
+            ioEnvironment.writeError("grep: invalid pattern: " + e.getDescription() + System.lineSeparator());
+            return 1;
+        }
+        Search search = new Search(pattern, mode, colorOutput, beforeContext, afterContext, maxCount,
+                ioEnvironment.charset());
+
+        if (fileNames.size() > 1 || recursive && Files.isDirectory(Path.of(fileNames.getFirst()))) {
+            List<String> excludedFiles = Objects.requireNonNullElse(options.getAllOptionValues("exclude"), List.of());
+            List<String> excludedDirectories = Objects.requireNonNullElse(options.getAllOptionValues("exclude-dir"), List.of());
+            DirectoryWalker walker = new DirectoryWalker(pool, maxDepth, excludedFiles, excludedDirectories);
+            return searchFiles(fileNames, recursive, walker, search, ioEnvironment);
+        }
+        String fileName = fileNames.isEmpty() ? null : fileNames.getFirst();
+        LineEncoder output = new LineEncoder(ioEnvironment::writeOutput, search.charset());
+        ContextPrinter contextPrinter = contextPrinter(search, pattern.matcher(), null, output);
+        try (FileInput input = fileName != null ? FileInputFactory.open(Path.of(fileName)) : FileInputFactory.of(ioEnvironment)) {
+            search(input, search, contextPrinter);
+            printSummary(search, fileName != null ? fileName : STANDARD_INPUT, false, contextPrinter, output);
+            return mode == OutputMode.QUIET && contextPrinter.matchCount() == 0 ? 1 : 0;
+        } catch (IOException e) {
+            ioEnvironment.writeError("grep: " + (fileName != null ? fileName + ": " + describe(e) : e.getMessage()) + System.lineSeparator());
+            return 1;
+        }
+    }
+
+    /**
+     * What is printed for the searched files.
+     */
+    private enum OutputMode {
+        LINES,
+        COUNT,
+        FILES_WITH_MATCHES,
+        QUIET
+    }
+
+    /**
+     * The settings of a search shared by all the searched files.
+     *
+     * @param charset the charset of the environment, files are decoded and the output is encoded with it.
+     */
+    private record Search(GrepPattern pattern, OutputMode mode, boolean colorOutput,
+                          int beforeContext, int afterContext, long maxCount, Charset charset) {
+    }
+
+    /**
+     * The result of the search in one file: the error which stopped it, if any, and whether a line matched.
+     *
+     * @param outputFailure the error of writing the output, which stops the whole command.
+     */
+    private record FileResult(String error, boolean matched, IOException outputFailure) {
+    }
+
+    /**
+     * A file being searched and its output, the output is null for the errors known in advance.
+     */
+    private record PendingFile(Future<FileResult> result, OrderedOutput output) {
+    }
+
+    /**
+     * Creates the printer of the lines chosen for the output.
+     *
+     * @param matcher  the matcher used for highlighting, it must not be shared with other threads.
+     * @param fileName the prefix of the printed lines, followed by ':' for matching lines and '-' for the context,
+     *                 or null if the lines are printed as is.
+     */
+    private static ContextPrinter contextPrinter(Search search, LineMatcher matcher, String fileName, LineEncoder output) {
+        return switch (search.mode()) {
+            case LINES -> new ContextPrinter((line, matched) -> {
+                if (fileName != null) {
+                    output.append(fileName).append(matched ? ":" : "-");
                 }
-                patternStr = args.get(0);
-                if (args.size() > 1) {
-                    fileName = args.get(1);
-                    useFile = true;
+                if (matched && search.colorOutput()) {
+                    highlightMatches(line, matcher, output);
+                } else {
+                    output.append(line);
                 }
-            }
+                output.endLine();
+            }, search.beforeContext(), search.afterContext(), search.maxCount());
+            case COUNT -> ContextPrinter.counting(search.maxCount());
+            // The first match decides the result
+            case FILES_WITH_MATCHES, QUIET -> ContextPrinter.counting(Math.min(1, search.maxCount()));
+        };
+    }
 
-            if (useFile && !Files.exists(Path.of(fileName))) {
-                ioEnvironment.writeError("grep: " + fileName + ": No such file or directory" + System.lineSeparator());
-                return 1;
+    /**
+     * Prints the result of the search in a file for the modes which do not print the lines.
+     */
+    private static void printSummary(Search search, String fileName, boolean withFileName,
+                                     ContextPrinter contextPrinter, LineEncoder output) throws IOException {
+        if (search.mode() == OutputMode.COUNT) {
+            if (withFileName) {
+                output.append(fileName).append(":");
             }
+            output.append(Long.toString(contextPrinter.matchCount()));
+            output.endLine();
+        } else if (search.mode() == OutputMode.FILES_WITH_MATCHES && contextPrinter.matchCount() > 0) {
+            output.append(fileName);
+            output.endLine();
+        }
+    }
 
-            int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
-            flags |= Pattern.UNICODE_CHARACTER_CLASS;
-            if (wholeWord) {
-                String escapedPattern = Pattern.quote(patternStr);
-                patternStr = "(?<=\\b|^)" + escapedPattern + "(?=\\b|$)";
-            }
-            Pattern pattern = Pattern.compile(patternStr, flags);
+    /**
+     * Searches the input with the fastest of the available methods.
+     * The searchers working on raw bytes expect UTF-8, inputs in other charsets are searched line by line.
+     */
+    private void search(FileInput input, Search search, ContextPrinter contextPrinter) throws IOException {
+        GrepPattern pattern = search.pattern();
+        boolean utf8 = search.charset().equals(StandardCharsets.UTF_8);
+        if (utf8 && input.size() >= parallelThreshold && pool.getParallelism() > 1) {
+            new ParallelGrepSearcher(pattern, contextPrinter, pool, chunkSize).search(input);
+            return;
+        }
+        LineMatcher matcher = pattern.matcher();
+        BytePattern bytePattern = pattern.bytePattern();
+        if (utf8 && bytePattern != null && input.size() >= 0) {
+            new ByteGrepSearcher(bytePattern, matcher, contextPrinter).search(input);
+            return;
+        }
+        LineReader lineReader = input.lines(search.charset());
+        CharSequence line;
+        while (!contextPrinter.isDone() && (line = lineReader.readLineView()) != null) {
+            contextPrinter.accept(line, matcher.find(line));
+        }
+    }
 
-            List<String> lines;
-            if (useFile) {
-                lines = Files.readAllLines(Path.of(fileName));
-            } else {
-                lines = new ArrayList<>();
-                String line;
-                while ((line = ioEnvironment.readLine()) != null) {
-                    lines.add(line);
-                }
+    private FileResult searchFile(Path file, Search search, OrderedOutput orderedOutput) {
+        LineEncoder output = new LineEncoder(orderedOutput, search.charset());
+        ContextPrinter contextPrinter = contextPrinter(search, search.pattern().matcher(), file.toString(), output);
+        try (FileInput input = FileInputFactory.open(file)) {
+            search(input, search, contextPrinter);
+            printSummary(search, file.toString(), true, contextPrinter, output);
+            return new FileResult(null, contextPrinter.matchCount() > 0, null);
+        } catch (IOException e) {
+            if (orderedOutput.failure() != null) {
+                return new FileResult(null, contextPrinter.matchCount() > 0, orderedOutput.failure());
             }
+            return new FileResult("grep: " + file + ": " + describe(e), contextPrinter.matchCount() > 0, null);
+        }
+    }
+
+    private static String describe(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "No such file or directory";
+        }
+        if (e instanceof AccessDeniedException) {
+            return "Permission denied";
+        }
+        return e.getMessage();
+    }
+
+    /**
+     * Searches several files and directories, printing every line with the name of its file.
+     * Directories are walked on the pool in advance, the files are searched concurrently on the same pool,
+     * at most MAX_OPEN_FILES at a time. The file whose turn it is prints its lines directly to the output,
+     * the files after it keep their lines in bounded buffers until all the files before them are printed,
+     * so the output is grouped by files and keeps the order of the arguments.
+     * With -q the search stops at the first file with a match.
+     */
+    private int searchFiles(List<String> fileNames, boolean recursive, DirectoryWalker walker,
+                            Search search, StreamingIOEnvironment ioEnvironment) {
+        List<Path> paths = new ArrayList<>();
+        List<ForkJoinTask<List<Path>>> walks = new ArrayList<>();
+        for (String fileName : fileNames) {
+            Path path = parsePath(fileName);
+            paths.add(path);
+            walks.add(recursive && path != null && Files.isDirectory(path) ? walker.walk(path) : null);
+        }
 
-            for (int i = 0; i < lines.size();) {
-                String line = lines.get(i++);
-                Matcher matcher = pattern.matcher(line);
-                if (matcher.find()) {
-                    String outputLine = colorOutput ? highlightMatches(line, pattern) : line;
-                    ioEnvironment.writeOutput(outputLine + System.lineSeparator());
-
-                    if (afterContext > 0) {
-                        int end = Math.min(i + afterContext, lines.size());
-                        while (i < end) {
-                            line = lines.get(i++);
-                            matcher = pattern.matcher(line);
-                            if (matcher.find()) {
-                                outputLine = colorOutput ? highlightMatches(line, pattern) : line;
-                                ioEnvironment.writeOutput(outputLine + System.lineSeparator());
-                                end = Math.min(i + afterContext, lines.size());
-                            } else {
-                                ioEnvironment.writeOutput(line + System.lineSeparator());
-                            }
+        Deque<PendingFile> pending = new ArrayDeque<>();
+        boolean quiet = search.mode() == OutputMode.QUIET;
+        boolean matched = false;
+        int status = 0;
+        try {
+            files:
+            for (int i = 0; i < fileNames.size(); i++) {
+                Path path = paths.get(i);
+                List<PendingFile> results = new ArrayList<>();
+                if (path == null || !Files.exists(path)) {
+                    results.add(error("grep: " + fileNames.get(i) + ": No such file or directory"));
+                } else if (walks.get(i) != null) {
+                    for (Path file : walks.get(i).join()) {
+                        IOException failure = walker.failure(file);
+                        results.add(failure != null ? error("grep: " + file + ": " + describe(failure))
+                                : search(file, search, ioEnvironment));
+                    }
+                } else if (Files.isDirectory(path)) {
+                    results.add(error("grep: " + fileNames.get(i) + ": Is a directory"));
+                } else if (!walker.isExcluded(path)) {
+                    results.add(search(path, search, ioEnvironment));
+                }
+                for (PendingFile result : results) {
+                    while (pending.size() >= MAX_OPEN_FILES) {
+                        FileResult printed = print(pending.removeFirst(), ioEnvironment);
+                        status |= printed.error() != null ? 1 : 0;
+                        matched |= printed.matched();
+                        if (matched && quiet) {
+                            break files;
                         }
                     }
+                    if (result.result() instanceof ForkJoinTask<FileResult> task) {
+                        pool.execute(task);
+                    }
+                    pending.add(result);
                 }
             }
-
-            return 0;
+            while (!pending.isEmpty() && !(matched && quiet)) {
+                FileResult printed = print(pending.removeFirst(), ioEnvironment);
+                status |= printed.error() != null ? 1 : 0;
+                matched |= printed.matched();
+            }
         } catch (IOException e) {
-            ioEnvironment.writeError("grep: " + e.getMessage() + System.lineSeparator());
-            return 1;
+            ioEnvironment.writeError("grep: cannot write to output stream" + System.lineSeparator());
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            for (PendingFile file : pending) {
+                file.result().cancel(true);
+                if (file.output() != null) {
+                    file.output().close();
+                }
+            }
+            walks.stream().filter(Objects::nonNull).forEach(walk -> walk.cancel(true));
+        }
+        if (quiet) {
+            return matched ? 0 : 1;
+        }
+        return status;
+    }
+
+    private static Path parsePath(String fileName) {
+        try {
+            return Path.of(fileName);
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private PendingFile search(Path file, Search search, StreamingIOEnvironment ioEnvironment) {
+        OrderedOutput output = new OrderedOutput(ioEnvironment::writeOutput);
+        return new PendingFile(ForkJoinTask.adapt(() -> searchFile(file, search, output)), output);
+    }
+
+    private static PendingFile error(String message) {
+        return new PendingFile(CompletableFuture.completedFuture(new FileResult(message, false, null)), null);
+    }
+
+    /**
+     * Gives the turn to the output of the file and prints its error when the search is finished.
+     */
+    private static FileResult print(PendingFile pending, StreamingIOEnvironment ioEnvironment) throws IOException, InterruptedException {
+        if (pending.output() != null) {
+            pending.output().release();
+        }
+        FileResult result;
+        try {
+            result = pending.result().get();
+        } catch (ExecutionException e) {
+            result = new FileResult("grep: " + e.getCause().getMessage(), false, null);
+        }
+        if (result.outputFailure() != null) {
+            throw result.outputFailure();
+        }
+        if (result.error() != null) {
+            ioEnvironment.writeError(result.error() + System.lineSeparator());
         }
+        return result;
     }
-}
\ No newline at end of file
+}
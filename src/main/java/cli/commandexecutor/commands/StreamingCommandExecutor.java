@@ -0,0 +1,26 @@
+package cli.commandexecutor.commands;
+
+import cli.ioenvironment.IOEnvironment;
+import cli.ioenvironment.StreamingIOEnvironment;
+import cli.model.CommandOptions;
+
+import java.util.List;
+
+/**
+ * The StreamingCommandExecutor interface is implemented by internal commands
+ * which process their input and output as byte chunks or line by line,
+ * so they can handle data larger than the available memory.
+ * CommandExecutorImpl passes such commands a StreamingIOEnvironment,
+ * other internal commands see it as a plain IOEnvironment.
+ */
+public interface StreamingCommandExecutor extends InternalCommandExecutor {
+    int execute(List<String> args, CommandOptions options, StreamingIOEnvironment ioEnvironment);
+
+    @Override
+    default int execute(List<String> args, CommandOptions options, IOEnvironment ioEnvironment) {
+        if (ioEnvironment instanceof StreamingIOEnvironment streamingIOEnvironment) {
+            return execute(args, options, streamingIOEnvironment);
+        }
+        throw new IllegalArgumentException("Streaming command requires a StreamingIOEnvironment");
+    }
+}
@@ -0,0 +1,61 @@
+package cli.commandexecutor.commands;
+
+import cli.commandexecutor.fileinput.FileInput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The WcChunkTask class counts a byte range of a file on a ForkJoinPool.
+ * Ranges larger than the chunk size are split in halves which are counted in parallel and summed.
+ * A chunk looks at the byte preceding it, so a word crossing the border of two chunks is counted once.
+ */
+class WcChunkTask extends RecursiveTask<WcCounter> {
+    private final FileInput input;
+    private final long from;
+    private final long to;
+    private final long chunkSize;
+
+    WcChunkTask(FileInput input, long from, long to, long chunkSize) {
+        this.input = input;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected WcCounter compute() {
+        if (to - from <= chunkSize) {
+            try {
+                return countChunk();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long middle = from + (to - from) / 2;
+        WcChunkTask left = new WcChunkTask(input, from, middle, chunkSize);
+        WcChunkTask right = new WcChunkTask(input, middle, to, chunkSize);
+        left.fork();
+        WcCounter rightCounter = right.compute();
+        WcCounter leftCounter = left.join();
+        leftCounter.add(rightCounter);
+        return leftCounter;
+    }
+
+    private WcCounter countChunk() throws IOException {
+        boolean inWord = from > 0 && !WcCounter.isWhitespace(input.window(from - 1, 1).get(0));
+        WcCounter counter = new WcCounter(inWord);
+        long position = from;
+        while (position < to) {
+            ByteBuffer window = input.window(position, (int) Math.min(to - position, Integer.MAX_VALUE));
+            if (!window.hasRemaining()) {
+                break;
+            }
+            position += window.remaining();
+            counter.update(window);
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,152 @@
+package cli.commandexecutor.commands;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The WcCounter class counts lines, words and bytes of input passed to it in windows of bytes in a single pass.
+ * A line is counted for every '\n' byte and a word for every transition from whitespace to another byte,
+ * like GNU wc does, so a word split between two windows is counted once.
+ * Counters are 64-bit, so inputs larger than 2 GiB are counted correctly.
+ * A part of a larger input can be counted separately if the counter knows whether the byte preceding the part
+ * belongs to a word, then the counts of consecutive parts are summed with {@link #add(WcCounter)}.
+ * If the jdk.incubator.vector module is available (the application is started with
+ * {@code --add-modules jdk.incubator.vector}), bytes are counted by {@link WcVectorKernel}, otherwise by a scalar loop.
+ */
+class WcCounter {
+    static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static final int VECTOR_CHUNK_SIZE = 64 * 1024;
+    private static final boolean[] WHITESPACE = new boolean[256];
+
+    static {
+        for (char c : new char[]{' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+            WHITESPACE[c] = true;
+        }
+    }
+
+    // Updated by WcVectorKernel
+    long lines;
+    long words;
+    long bytes;
+    boolean inWord;
+
+    private final boolean vectorized;
+    private byte[] vectorChunk;
+
+    WcCounter() {
+        this(false);
+    }
+
+    /**
+     * @param inWord whether the byte preceding the counted input belongs to a word.
+     */
+    WcCounter(boolean inWord) {
+        this(inWord, VECTOR_API_AVAILABLE);
+    }
+
+    /**
+     * @param inWord     whether the byte preceding the counted input belongs to a word.
+     * @param vectorized whether to use the Vector API, ignored if it is not available.
+     */
+    WcCounter(boolean inWord, boolean vectorized) {
+        this.inWord = inWord;
+        this.vectorized = vectorized && VECTOR_API_AVAILABLE;
+    }
+
+    static boolean isWhitespace(byte b) {
+        return WHITESPACE[b & 0xFF];
+    }
+
+    /**
+     * Counts the bytes between the position and the limit of the window and moves the position to the limit.
+     */
+    void update(ByteBuffer window) {
+        if (window.hasArray()) {
+            int offset = window.arrayOffset();
+            update(window.array(), offset + window.position(), offset + window.limit());
+            window.position(window.limit());
+        } else if (vectorized) {
+            // Vectors cannot be loaded from a mapped buffer without the preview MemorySegment API,
+            // so the window is copied in chunks small enough to stay in the CPU cache
+            if (vectorChunk == null) {
+                vectorChunk = new byte[VECTOR_CHUNK_SIZE];
+            }
+            while (window.hasRemaining()) {
+                int length = Math.min(vectorChunk.length, window.remaining());
+                window.get(vectorChunk, 0, length);
+                update(vectorChunk, 0, length);
+            }
+        } else {
+            updateScalar(window);
+        }
+    }
+
+    private void update(byte[] array, int from, int to) {
+        if (vectorized) {
+            from = WcVectorKernel.update(this, array, from, to);
+        }
+        long lines = this.lines;
+        long words = this.words;
+        boolean inWord = this.inWord;
+        for (int i = from; i < to; i++) {
+            byte b = array[i];
+            if (b == '\n') {
+                lines++;
+            }
+            boolean whitespace = WHITESPACE[b & 0xFF];
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        this.lines = lines;
+        this.words = words;
+        this.inWord = inWord;
+        bytes += to - from;
+    }
+
+    private void updateScalar(ByteBuffer window) {
+        int from = window.position();
+        int to = window.limit();
+        long lines = this.lines;
+        long words = this.words;
+        boolean inWord = this.inWord;
+        for (int i = from; i < to; i++) {
+            byte b = window.get(i);
+            if (b == '\n') {
+                lines++;
+            }
+            boolean whitespace = WHITESPACE[b & 0xFF];
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        this.lines = lines;
+        this.words = words;
+        this.inWord = inWord;
+        bytes += to - from;
+        window.position(to);
+    }
+
+    /**
+     * Adds the counts of the input following the input counted by this counter.
+     */
+    void add(WcCounter next) {
+        lines += next.lines;
+        words += next.words;
+        bytes += next.bytes;
+        inWord = next.bytes > 0 ? next.inWord : inWord;
+    }
+
+    long lines() {
+        return lines;
+    }
+
+    long words() {
+        return words;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
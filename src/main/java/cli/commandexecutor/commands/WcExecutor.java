@@ -1,28 +1,71 @@
 package cli.commandexecutor.commands;
 
-import cli.ioenvironment.IOEnvironment;
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import cli.ioenvironment.StreamingIOEnvironment;
 import cli.model.CommandOptions;
 
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * The WcExecutor class implements the InternalCommandExecutor interface
+ * The WcExecutor class implements the StreamingCommandExecutor interface
  * and provides functionality similar to the Unix "wc" command.
  * It counts and prints the number of lines, words, and bytes in files or input streams.
  */
-public class WcExecutor implements InternalCommandExecutor {
+public class WcExecutor implements StreamingCommandExecutor {
     private static final String HELP_MESSAGE = "Print lines, words and bytes in file.\n";
     private static final String FLAG_HELP = "help";
     private static final String FLAG_LINES = "l";
     private static final String FLAG_WORDS = "w";
     private static final String FLAG_BYTES = "c";
+    private static final long PARALLEL_THRESHOLD = 32 * 1024 * 1024;
+    private static final long CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_CONCURRENT_FILES = 16;
+
+    private final ExecutorService scheduler;
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+    private final long chunkSize;
+
+    public WcExecutor() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * @param scheduler scheduler which reads several files concurrently.
+     */
+    public WcExecutor(ExecutorService scheduler) {
+        this(scheduler, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param scheduler scheduler which reads several files concurrently.
+     * @param pool      pool which counts large files in parallel chunks.
+     */
+    public WcExecutor(ExecutorService scheduler, ForkJoinPool pool) {
+        this(scheduler, pool, PARALLEL_THRESHOLD, CHUNK_SIZE);
+    }
+
+    WcExecutor(ExecutorService scheduler, ForkJoinPool pool, long parallelThreshold, long chunkSize) {
+        this.scheduler = scheduler;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = chunkSize;
+    }
 
     private void printStatistics(CommandOptions options, @org.jetbrains.annotations.NotNull StringBuilder output,
-                                 String file, int lines, int words, int bytes) {
+                                 String file, long lines, long words, long bytes) {
         if (options.isEmpty() || options.containsOption(FLAG_LINES)) {
             output.append(lines).append(" ");
         }
@@ -40,27 +83,35 @@ public class WcExecutor implements InternalCommandExecutor {
         output.append(System.lineSeparator());
     }
 
-    private int processInputStream(CommandOptions options, IOEnvironment ioEnvironment) {
+    /**
+     * Counts the input sequentially, or in parallel chunks if it is a file larger than the threshold.
+     */
+    private WcCounter count(FileInput input) throws IOException {
+        if (input.size() >= parallelThreshold && input.size() > chunkSize && pool.getParallelism() > 1) {
+            try {
+                return pool.invoke(new WcChunkTask(input, 0, input.size(), chunkSize));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        WcCounter counter = new WcCounter();
+        ByteBuffer window;
+        while ((window = input.nextWindow()) != null) {
+            counter.update(window);
+        }
+        return counter;
+    }
+
+    private int processInputStream(CommandOptions options, StreamingIOEnvironment ioEnvironment) {
         StringBuilder output = new StringBuilder();
-        int lines = 0;
-        int words = 0;
-        int bytes = 0;
-        String content;
-        try {
-            content = ioEnvironment.read();
+        WcCounter counter;
+        try (FileInput input = FileInputFactory.of(ioEnvironment)) {
+            counter = count(input);
         } catch (IOException e) {
             ioEnvironment.writeError("wc: error reading input stream" + System.lineSeparator());
             return 1;
         }
-        try (Scanner scanner = new Scanner(content)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                lines++;
-                words += line.split("\\s+").length;
-                bytes += line.getBytes().length;
-            }
-        }
-        printStatistics(options, output, null, lines, words, bytes);
+        printStatistics(options, output, null, counter.lines(), counter.words(), counter.bytes());
         try {
             ioEnvironment.writeOutput(output.toString());
         } catch (IOException e) {
@@ -74,7 +125,7 @@ public class WcExecutor implements InternalCommandExecutor {
      * Executes the "wc" command.
      * If the "--help" option is specified, it returns a help message.
      * If no file arguments are provided, it processes the input stream.
-     * Otherwise, it reads and counts statistics for each specified file.
+     * Otherwise, it counts statistics for the specified files concurrently and prints them in the order of the files.
      * -l - lines number.
      * -w - words number.
      * -c - bytes number.
@@ -86,7 +137,7 @@ public class WcExecutor implements InternalCommandExecutor {
      * @return CommandResult containing the execution status and output.
      */
     @Override
-    public int execute(List<String> args, CommandOptions options, IOEnvironment ioEnvironment) {
+    public int execute(List<String> args, CommandOptions options, StreamingIOEnvironment ioEnvironment) {
         if (options != null && options.containsOption(FLAG_HELP)) {
             try {
                 ioEnvironment.writeOutput(HELP_MESSAGE);
@@ -99,35 +150,63 @@ public class WcExecutor implements InternalCommandExecutor {
         if (args.isEmpty()) {
             return processInputStream(options, ioEnvironment);
         }
-        int totalLines = 0;
-        int totalWords = 0;
-        int totalBytes = 0;
-        StringBuilder output = new StringBuilder();
-        for (String file : args) {
-            Path filePath = Path.of(file);
-            try {
-                String content = Files.readString(filePath);
-                int lines = content.split("\n").length;
-                int words = content.split("\\s+").length;
-                int bytes = content.getBytes().length;
-                totalLines += lines;
-                totalWords += words;
-                totalBytes += bytes;
-                printStatistics(options, output, file, lines, words, bytes);
-            } catch (IOException e) {
-                ioEnvironment.writeError("wc: cannot read file " + file + System.lineSeparator());
-                return 1;
-            }
-        }
-        if (args.size() > 1) {
-            printStatistics(options, output, "total", totalLines, totalWords, totalBytes);
+        return processFiles(args, options, ioEnvironment);
+    }
+
+    private WcCounter countFile(String file) throws IOException {
+        try (FileInput input = FileInputFactory.open(Path.of(file))) {
+            return count(input);
+        } catch (InvalidPathException e) {
+            throw new IOException(e);
         }
+    }
+
+    /**
+     * Counts the files concurrently, at most MAX_CONCURRENT_FILES at a time.
+     * The statistics of a file are printed as soon as it and all the files before it are counted,
+     * so the output keeps the order of the arguments.
+     */
+    private int processFiles(List<String> files, CommandOptions options, StreamingIOEnvironment ioEnvironment) {
+        Deque<Future<WcCounter>> pending = new ArrayDeque<>();
+        WcCounter total = new WcCounter();
+        int status = 0;
+        int printed = 0;
         try {
-            ioEnvironment.writeOutput(output.toString());
+            for (int submitted = 0; submitted < files.size() || !pending.isEmpty(); ) {
+                if (submitted < files.size() && pending.size() < MAX_CONCURRENT_FILES) {
+                    String file = files.get(submitted++);
+                    pending.add(scheduler.submit(() -> countFile(file)));
+                    continue;
+                }
+                String file = files.get(printed++);
+                try {
+                    WcCounter counter = pending.removeFirst().get();
+                    total.add(counter);
+                    printFileStatistics(options, ioEnvironment, file, counter);
+                } catch (ExecutionException e) {
+                    ioEnvironment.writeError("wc: cannot read file " + file + System.lineSeparator());
+                    status = 1;
+                }
+            }
+            if (files.size() > 1) {
+                printFileStatistics(options, ioEnvironment, "total", total);
+            }
         } catch (IOException e) {
             ioEnvironment.writeError("wc: cannot write to output stream" + System.lineSeparator());
+            status = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            pending.forEach(future -> future.cancel(true));
         }
+        return status;
+    }
 
-        return 0;
+    private void printFileStatistics(CommandOptions options, StreamingIOEnvironment ioEnvironment,
+                                     String file, WcCounter counter) throws IOException {
+        StringBuilder output = new StringBuilder();
+        printStatistics(options, output, file, counter.lines(), counter.words(), counter.bytes());
+        ioEnvironment.writeOutput(output.toString());
     }
 }
@@ -0,0 +1,54 @@
+package cli.commandexecutor.commands;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The WcVectorKernel class counts newlines and word starts with SIMD instructions using the Vector API.
+ * Whitespace flags of a whole vector are packed into a bit mask, so word starts are found
+ * as non-whitespace bytes preceded by whitespace with a shift, carrying the flag of the last byte to the next vector.
+ * The class must only be loaded when the jdk.incubator.vector module is present, see {@link WcCounter}.
+ */
+class WcVectorKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() <= Long.SIZE
+            ? ByteVector.SPECIES_PREFERRED : ByteVector.SPECIES_512;
+    private static final int LANES = SPECIES.length();
+    private static final long LANES_MASK = LANES == Long.SIZE ? -1L : (1L << LANES) - 1;
+
+    private WcVectorKernel() {
+    }
+
+    /**
+     * Counts the longest prefix of the range whose length is a multiple of the vector length
+     * and adds the result to the counter.
+     *
+     * @return the end of the counted prefix.
+     */
+    static int update(WcCounter counter, byte[] array, int from, int to) {
+        int bound = from + SPECIES.loopBound(to - from);
+        long lines = 0;
+        long words = 0;
+        long previousWhitespace = counter.inWord ? 0 : 1;
+        for (int i = from; i < bound; i += LANES) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, array, i);
+            VectorMask<Byte> newlines = vector.eq((byte) '\n');
+            VectorMask<Byte> whitespace = vector.compare(VectorOperators.GE, (byte) '\t')
+                    .and(vector.compare(VectorOperators.LE, (byte) '\r'))
+                    .or(vector.eq((byte) ' '));
+            long whitespaceBits = whitespace.toLong();
+            long wordStarts = ~whitespaceBits & ((whitespaceBits << 1) | previousWhitespace) & LANES_MASK;
+            lines += newlines.trueCount();
+            words += Long.bitCount(wordStarts);
+            previousWhitespace = (whitespaceBits >>> (LANES - 1)) & 1;
+        }
+        counter.lines += lines;
+        counter.words += words;
+        counter.bytes += bound - from;
+        if (bound > from) {
+            counter.inWord = previousWhitespace == 0;
+        }
+        return bound;
+    }
+}
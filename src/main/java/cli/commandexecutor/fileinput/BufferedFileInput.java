@@ -0,0 +1,76 @@
+package cli.commandexecutor.fileinput;
+
+import cli.ioenvironment.LineReader;
+import cli.ioenvironment.StreamingIOEnvironment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * The BufferedFileInput class reads a channel into a reusable heap buffer.
+ * It is used for small files, where mapping costs more than copying, and for pipes, which cannot be mapped.
+ */
+public class BufferedFileInput implements FileInput {
+    private final ReadableByteChannel channel;
+    private final long size;
+    private final ByteBuffer buffer;
+
+    public BufferedFileInput(ReadableByteChannel channel, long size, int bufferSize) {
+        this.channel = channel;
+        this.size = size;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer nextWindow() throws IOException {
+        buffer.clear();
+        if (channel.read(buffer) == -1) {
+            return null;
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public ByteBuffer window(long position, int length) throws IOException {
+        if (!(channel instanceof FileChannel fileChannel)) {
+            throw new UnsupportedOperationException("The input cannot be read at an arbitrary position");
+        }
+        ByteBuffer window = ByteBuffer.allocate(length);
+        while (window.hasRemaining() && fileChannel.read(window, position + window.position()) != -1) {
+            // Read until the window is full or the file ends
+        }
+        return window.flip();
+    }
+
+    @Override
+    public LineReader lines(Charset charset) {
+        return new LineReader(this::nextWindow, charset);
+    }
+
+    @Override
+    public long transferTo(StreamingIOEnvironment ioEnvironment) throws IOException {
+        if (channel instanceof FileChannel fileChannel) {
+            return ioEnvironment.transferFrom(fileChannel);
+        }
+        long transferred = 0;
+        ByteBuffer window;
+        while ((window = nextWindow()) != null) {
+            transferred += window.remaining();
+            ioEnvironment.writeOutput(window);
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,55 @@
+package cli.commandexecutor.fileinput;
+
+import cli.ioenvironment.LineReader;
+import cli.ioenvironment.StreamingIOEnvironment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The FileInput interface gives built-in commands uniform access to the content of a file or of the input stream.
+ * The content is read sequentially in windows of bytes, as lines, or is transferred to the output as a whole.
+ * Windows of files can also be requested at any position, so a file can be processed in parts.
+ */
+public interface FileInput extends Closeable {
+    /**
+     * Returns the size of the input in bytes.
+     *
+     * @return the size, or -1 if it is not known in advance, like for pipes.
+     */
+    long size();
+
+    /**
+     * Reads the next window of the input. The bytes are between the position and the limit of the buffer.
+     * The buffer must not be modified and may be reused by the next call, so it must not be kept.
+     *
+     * @return the next window, or null if the end of the input has been reached.
+     */
+    ByteBuffer nextWindow() throws IOException;
+
+    /**
+     * Reads {@code length} bytes of the input starting at {@code position}
+     * without changing the position of sequential reading.
+     * Several threads may read windows of the same input concurrently.
+     *
+     * @throws UnsupportedOperationException if the input cannot be accessed at an arbitrary position.
+     */
+    ByteBuffer window(long position, int length) throws IOException;
+
+    /**
+     * Returns a reader of the lines of the input, starting from the current position of sequential reading.
+     * The reader consumes the windows of this input, so they must not be read directly afterwards.
+     *
+     * @param charset charset the lines are decoded with, usually the one of the command's environment.
+     */
+    LineReader lines(Charset charset);
+
+    /**
+     * Writes the rest of the input to the output of the command.
+     *
+     * @return the number of bytes written.
+     */
+    long transferTo(StreamingIOEnvironment ioEnvironment) throws IOException;
+}
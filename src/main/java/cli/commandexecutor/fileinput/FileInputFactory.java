@@ -0,0 +1,73 @@
+package cli.commandexecutor.fileinput;
+
+import cli.ioenvironment.StreamingIOEnvironment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The FileInputFactory class chooses how the input of a built-in command is read.
+ * Large regular files are memory-mapped, small files, special files and the input stream are read into a buffer.
+ */
+public class FileInputFactory {
+    static final long MAPPING_THRESHOLD = 1024 * 1024;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private FileInputFactory() {
+    }
+
+    /**
+     * Opens the file for reading.
+     *
+     * @param path path to the file.
+     * @return input which has to be closed by the caller.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static FileInput open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (!Files.isRegularFile(path)) {
+                return new BufferedFileInput(channel, -1, BUFFER_SIZE);
+            }
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return new MappedFileInput(channel, size);
+            }
+            // Some regular files, like the ones in /proc, report zero size but have content
+            return new BufferedFileInput(channel, size == 0 ? -1 : size, size == 0 ? BUFFER_SIZE : (int) size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps the input stream of the command.
+     *
+     * @param ioEnvironment environment whose input is read.
+     * @return input of unknown size, closing it does not close the input stream.
+     */
+    public static FileInput of(StreamingIOEnvironment ioEnvironment) {
+        ReadableByteChannel channel = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer buffer) throws IOException {
+                return ioEnvironment.read(buffer);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        return new BufferedFileInput(channel, -1, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,71 @@
+package cli.commandexecutor.fileinput;
+
+import cli.ioenvironment.LineReader;
+import cli.ioenvironment.StreamingIOEnvironment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * The MappedFileInput class reads a regular file by mapping it into memory window by window,
+ * so the content is accessed in the page cache directly without being copied to the heap.
+ */
+public class MappedFileInput implements FileInput {
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private long position;
+
+    public MappedFileInput(FileChannel channel, long size) {
+        this(channel, size, WINDOW_SIZE);
+    }
+
+    MappedFileInput(FileChannel channel, long size, int windowSize) {
+        this.channel = channel;
+        this.size = size;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer nextWindow() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        int length = (int) Math.min(windowSize, size - position);
+        ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+        return window;
+    }
+
+    @Override
+    public ByteBuffer window(long position, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length, Math.max(size - position, 0)));
+    }
+
+    @Override
+    public LineReader lines(Charset charset) {
+        return new LineReader(this::nextWindow, charset);
+    }
+
+    @Override
+    public long transferTo(StreamingIOEnvironment ioEnvironment) throws IOException {
+        channel.position(position);
+        long transferred = ioEnvironment.transferFrom(channel);
+        position = size;
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
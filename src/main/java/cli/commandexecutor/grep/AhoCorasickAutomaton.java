@@ -0,0 +1,184 @@
+package cli.commandexecutor.grep;
+
+import java.util.Arrays;
+
+/**
+ * The AhoCorasickAutomaton class finds occurrences of many words in one pass over a text.
+ * Symbols are non-negative ints below 2^16, so the same automaton works for chars and for bytes.
+ * Transitions of the trie are kept in one open-addressing hash table, the root has a dense table of its
+ * transitions for the symbols below 256, where scanning spends most of its time.
+ * Missing transitions follow the failure links, so the automaton needs memory proportional
+ * to the total length of the words only.
+ */
+final class AhoCorasickAutomaton {
+    static final int ROOT = 0;
+    private static final int ROOT_TABLE_SIZE = 256;
+
+    private long[] keys = new long[16];
+    private int[] targets = new int[16];
+    private int transitionCount;
+
+    private int[] depth = new int[16];
+    private int[] parent = new int[16];
+    private int[] symbol = new int[16];
+    private boolean[] terminal = new boolean[16];
+    private int stateCount = 1;
+
+    private final int[] rootTable = new int[ROOT_TABLE_SIZE];
+    private int[] failure;
+    private int[] output;
+
+    AhoCorasickAutomaton(Iterable<int[]> words) {
+        Arrays.fill(keys, -1);
+        for (int[] word : words) {
+            add(word);
+        }
+        build();
+    }
+
+    private void add(int[] word) {
+        int state = ROOT;
+        for (int s : word) {
+            int next = transition(state, s);
+            if (next < 0) {
+                next = newState(state, s);
+                put(state, s, next);
+            }
+            state = next;
+        }
+        terminal[state] = true;
+    }
+
+    private int newState(int from, int s) {
+        if (stateCount == depth.length) {
+            int capacity = depth.length * 2;
+            depth = Arrays.copyOf(depth, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            symbol = Arrays.copyOf(symbol, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+        }
+        depth[stateCount] = depth[from] + 1;
+        parent[stateCount] = from;
+        symbol[stateCount] = s;
+        return stateCount++;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void put(int state, int s, int target) {
+        if ((transitionCount + 1) * 2 > keys.length) {
+            long[] oldKeys = keys;
+            int[] oldTargets = targets;
+            keys = new long[oldKeys.length * 2];
+            targets = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] >= 0) {
+                    insert(oldKeys[i], oldTargets[i]);
+                }
+            }
+        }
+        insert((long) state << 16 | s, target);
+        transitionCount++;
+    }
+
+    private void insert(long key, int target) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] >= 0) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        targets[i] = target;
+    }
+
+    /**
+     * Returns the child of the state in the trie, or -1 if there is none.
+     */
+    private int transition(int state, int s) {
+        long key = (long) state << 16 | s;
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] >= 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return targets[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the failure links and the outputs, processing the states in the order of their depth,
+     * so the links of shorter states are known when they are needed.
+     */
+    private void build() {
+        int maxDepth = 0;
+        for (int state = 0; state < stateCount; state++) {
+            maxDepth = Math.max(maxDepth, depth[state]);
+        }
+        int[] firstOfDepth = new int[maxDepth + 2];
+        for (int state = 0; state < stateCount; state++) {
+            firstOfDepth[depth[state] + 1]++;
+        }
+        for (int d = 1; d < firstOfDepth.length; d++) {
+            firstOfDepth[d] += firstOfDepth[d - 1];
+        }
+        int[] byDepth = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            byDepth[firstOfDepth[depth[state]]++] = state;
+        }
+
+        failure = new int[stateCount];
+        output = new int[stateCount];
+        output[ROOT] = terminal[ROOT] ? ROOT : -1;
+        for (int s = 0; s < ROOT_TABLE_SIZE; s++) {
+            rootTable[s] = Math.max(transition(ROOT, s), ROOT);
+        }
+        for (int i = 1; i < stateCount; i++) {
+            int state = byDepth[i];
+            failure[state] = parent[state] == ROOT ? ROOT : next(failure[parent[state]], symbol[state]);
+            output[state] = terminal[state] ? state : output[failure[state]];
+        }
+        parent = null;
+        symbol = null;
+        terminal = null;
+    }
+
+    /**
+     * Returns the state reached from the state by the symbol.
+     */
+    int next(int state, int s) {
+        while (state != ROOT) {
+            int target = transition(state, s);
+            if (target >= 0) {
+                return target;
+            }
+            state = failure[state];
+        }
+        return s < ROOT_TABLE_SIZE ? rootTable[s] : Math.max(transition(ROOT, s), ROOT);
+    }
+
+    /**
+     * Returns the longest word ending at the state, or -1 if there is none.
+     * Shorter words ending at the same position are returned by {@code nextOutput}.
+     */
+    int output(int state) {
+        return output[state];
+    }
+
+    /**
+     * Returns the longest word which is a proper suffix of the word of the output state, or -1 if there is none.
+     */
+    int nextOutput(int outputState) {
+        return outputState == ROOT ? -1 : output[failure[outputState]];
+    }
+
+    /**
+     * Returns the length of the text the state matches.
+     */
+    int depth(int state) {
+        return depth[state];
+    }
+}
@@ -0,0 +1,202 @@
+package cli.commandexecutor.grep;
+
+import cli.commandexecutor.fileinput.FileInput;
+import cli.ioenvironment.LineDecoder;
+import cli.ioenvironment.LineReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ByteGrepSearcher class searches a UTF-8 file for a pattern in its raw bytes.
+ * The file is read in windows which start at line boundaries. A window is scanned by the BytePattern,
+ * line boundaries are only looked for around candidates, and only the lines containing candidates
+ * or printed as the context are decoded. Lines between them are skipped without being decoded.
+ * If the printer only counts matches and the candidates are exact, no line is decoded at all.
+ * The search stops reading the input as soon as the printer is done.
+ */
+public class ByteGrepSearcher {
+    static final int WINDOW_SIZE = 16 * 1024 * 1024;
+    // The largest buffer which can be mapped
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    private final BytePattern bytePattern;
+    private final LineMatcher matcher;
+    private final ContextPrinter contextPrinter;
+    private final LineDecoder decoder = new LineDecoder(StandardCharsets.UTF_8);
+    private final int windowSize;
+    private final int maxWindowSize;
+
+    private ByteBuffer window;
+    private int limit;
+    private boolean lastWindow;
+
+    /**
+     * @param bytePattern    pattern finding candidate lines.
+     * @param matcher        matcher checking decoded candidate lines.
+     * @param contextPrinter printer of matching lines and their context.
+     */
+    public ByteGrepSearcher(BytePattern bytePattern, LineMatcher matcher, ContextPrinter contextPrinter) {
+        this(bytePattern, matcher, contextPrinter, WINDOW_SIZE);
+    }
+
+    ByteGrepSearcher(BytePattern bytePattern, LineMatcher matcher, ContextPrinter contextPrinter, int windowSize) {
+        this(bytePattern, matcher, contextPrinter, windowSize, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * @param maxWindowSize the size a window can grow to when it holds no complete line with its context.
+     */
+    ByteGrepSearcher(BytePattern bytePattern, LineMatcher matcher, ContextPrinter contextPrinter,
+                     int windowSize, int maxWindowSize) {
+        this.bytePattern = bytePattern;
+        this.matcher = matcher;
+        this.contextPrinter = contextPrinter;
+        this.windowSize = windowSize;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    /**
+     * Searches the input of a known size from its beginning.
+     */
+    public void search(FileInput input) throws IOException {
+        search(input, 0, input.size());
+    }
+
+    /**
+     * Searches the lines of the input in the range, {@code from} must be the start of a line
+     * and {@code to} must be the end of the input or follow a line terminator.
+     * If a line with its context does not fit even into the largest window,
+     * the rest of the range is read line by line.
+     */
+    public void search(FileInput input, long from, long to) throws IOException {
+        long base = from;
+        int length = windowSize;
+        while (base < to && !contextPrinter.isDone()) {
+            window = input.window(base, (int) Math.min(length, to - base));
+            limit = window.limit();
+            lastWindow = base + limit >= to;
+            int processed = searchWindow();
+            if (processed == 0 && !lastWindow) {
+                if (length >= maxWindowSize) {
+                    searchLines(input, base, to);
+                    return;
+                }
+                // The window holds no complete line, so it grows until it does
+                length = (int) Math.min((long) length * 2, maxWindowSize);
+                continue;
+            }
+            base += processed;
+            length = windowSize;
+            if (lastWindow) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Decodes and checks every line of the range, reading it in windows of the usual size.
+     */
+    private void searchLines(FileInput input, long from, long to) throws IOException {
+        long[] position = {from};
+        LineReader lineReader = new LineReader(() -> {
+            if (position[0] >= to) {
+                return null;
+            }
+            ByteBuffer next = input.window(position[0], (int) Math.min(windowSize, to - position[0]));
+            position[0] += next.remaining();
+            return next.hasRemaining() ? next : null;
+        }, StandardCharsets.UTF_8);
+        CharSequence line;
+        while (!contextPrinter.isDone() && (line = lineReader.readLineView()) != null) {
+            contextPrinter.accept(line, matcher.find(line));
+        }
+    }
+
+    /**
+     * Processes the complete lines of the window.
+     *
+     * @return the length of the processed part of the window, the next window starts after it.
+     */
+    private int searchWindow() throws IOException {
+        int position = 0;
+        while (position < limit && !contextPrinter.isDone()) {
+            if (contextPrinter.isPrintingAfterContext()) {
+                int end = lineEnd(position);
+                if (end < 0) {
+                    return position;
+                }
+                acceptLine(position, end);
+                position = Math.min(end + 1, limit);
+                continue;
+            }
+            int candidate = bytePattern.indexIn(window, position, limit);
+            int lineStart = candidate < 0 ? lastLineStart(position) : lineStart(candidate, position);
+            int contextStart = contextStart(lineStart, position);
+            if (contextStart > position) {
+                contextPrinter.skip();
+            }
+            int end = candidate < 0 ? -1 : lineEnd(candidate);
+            if (end < 0) {
+                // The rest of the window has no complete line with a candidate,
+                // keep the lines which can become the context before a match in the next window
+                return lastWindow && candidate < 0 ? limit : contextStart;
+            }
+            for (int line = contextStart; line < lineStart; ) {
+                int contextEnd = lineEnd(line);
+                contextPrinter.accept(decoder.decode(window, line, contextEnd), false);
+                line = contextEnd + 1;
+            }
+            acceptLine(lineStart, end);
+            position = Math.min(end + 1, limit);
+        }
+        return limit;
+    }
+
+    private void acceptLine(int start, int end) throws IOException {
+        if (contextPrinter.isCounting() && bytePattern.isExact()) {
+            contextPrinter.accept(null, true);
+            return;
+        }
+        CharSequence line = decoder.decode(window, start, end);
+        contextPrinter.accept(line, matcher.find(line));
+    }
+
+    /**
+     * Returns the index of the '\n' terminating the line containing the index,
+     * the limit if it is the last line of the input, or -1 if the line continues after the window.
+     */
+    private int lineEnd(int index) {
+        for (int i = index; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return lastWindow ? limit : -1;
+    }
+
+    private int lineStart(int index, int from) {
+        for (int i = index - 1; i >= from; i--) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    private int lastLineStart(int from) {
+        return lineStart(limit, from);
+    }
+
+    /**
+     * Returns the start of the first line of the context before the line, not earlier than {@code from}.
+     */
+    private int contextStart(int lineStart, int from) {
+        int start = lineStart;
+        for (int lines = 0; lines < contextPrinter.before() && start > from; lines++) {
+            start = lineStart(start - 1, from);
+        }
+        return start;
+    }
+}
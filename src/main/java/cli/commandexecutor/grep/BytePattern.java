@@ -0,0 +1,27 @@
+package cli.commandexecutor.grep;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The BytePattern interface finds candidate occurrences of a grep pattern in UTF-8 encoded bytes.
+ * Every line which matches the pattern contains a candidate, so lines without candidates can be skipped
+ * without being decoded, while lines with candidates are decoded and checked by a LineMatcher.
+ * A byte pattern is immutable and can be shared between threads.
+ */
+public interface BytePattern {
+    /**
+     * Finds the first candidate occurrence between {@code from} and {@code to}.
+     * If several candidates lie in the same line, any of them may be returned.
+     *
+     * @return index of the first byte of the candidate, or -1 if there is none.
+     */
+    int indexIn(ByteBuffer buffer, int from, int to);
+
+    /**
+     * Checks whether every candidate is an occurrence of the pattern,
+     * so the lines containing candidates match without being decoded and checked.
+     */
+    default boolean isExact() {
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package cli.commandexecutor.grep;
+
+import java.io.IOException;
+
+/**
+ * The ContextPrinter class decides which lines of the input grep prints:
+ * the matching lines, {@code before} lines preceding them and {@code after} lines following them.
+ * Lines are passed one by one as they are read, only the possible context before the next match is remembered,
+ * so memory does not depend on the size of the input.
+ * After the maximal number of matches only the context after the last of them is printed,
+ * then the printer is done and the rest of the input does not need to be read.
+ */
+public class ContextPrinter {
+    /**
+     * The LinePrinter interface prints the lines chosen by the ContextPrinter.
+     */
+    @FunctionalInterface
+    public interface LinePrinter {
+        /**
+         * @param line    the line without its terminator.
+         * @param matched whether the line matches the pattern or is printed as a context.
+         */
+        void print(CharSequence line, boolean matched) throws IOException;
+    }
+
+    private final LinePrinter printer;
+    private final int after;
+    private final LineRingBuffer beforeLines;
+    private final long maxCount;
+    private int remainingAfter;
+    private long matchCount;
+
+    public ContextPrinter(LinePrinter printer, int before, int after) {
+        this(printer, before, after, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxCount the number of matching lines after which the search stops.
+     */
+    public ContextPrinter(LinePrinter printer, int before, int after, long maxCount) {
+        this.printer = printer;
+        this.after = after;
+        this.beforeLines = new LineRingBuffer(before);
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Creates a printer which only counts the matching lines, up to {@code maxCount} of them.
+     * It prints nothing, so its lines may be passed as null.
+     */
+    public static ContextPrinter counting(long maxCount) {
+        return new ContextPrinter(null, 0, 0, maxCount);
+    }
+
+    /**
+     * Checks whether the printer only counts the matching lines and does not need their text.
+     */
+    public boolean isCounting() {
+        return printer == null;
+    }
+
+    /**
+     * Returns the number of matching lines accepted so far.
+     */
+    public long matchCount() {
+        return matchCount;
+    }
+
+    /**
+     * Checks whether the maximal number of matches and the context after the last of them were accepted,
+     * so the following lines do not need to be read.
+     */
+    public boolean isDone() {
+        return matchCount >= maxCount && remainingAfter == 0;
+    }
+
+    /**
+     * Returns the number of lines of the context printed before a match.
+     */
+    public int before() {
+        return beforeLines.capacity();
+    }
+
+    /**
+     * Checks whether the next line is printed whether it matches or not, as the context after a match.
+     */
+    public boolean isPrintingAfterContext() {
+        return remainingAfter > 0;
+    }
+
+    /**
+     * Tells that some lines of the input were skipped without being passed to the printer,
+     * which is only allowed for lines which do not match and are not printed as the context after a match.
+     * The lines remembered as the context before the next match are forgotten.
+     */
+    public void skip() {
+        beforeLines.clear();
+    }
+
+    /**
+     * Processes the next line of the input.
+     * Lines matching after the maximal number of matches are only printed as the context.
+     */
+    public void accept(CharSequence line, boolean matched) throws IOException {
+        if (matched && matchCount < maxCount) {
+            matchCount++;
+            if (printer == null) {
+                return;
+            }
+            for (int i = 0; i < beforeLines.size(); i++) {
+                printer.print(beforeLines.get(i), false);
+            }
+            beforeLines.clear();
+            printer.print(line, true);
+            remainingAfter = after;
+        } else if (remainingAfter > 0) {
+            printer.print(line, false);
+            remainingAfter--;
+        } else {
+            beforeLines.add(line);
+        }
+    }
+}
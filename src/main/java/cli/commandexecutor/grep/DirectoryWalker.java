@@ -0,0 +1,134 @@
+package cli.commandexecutor.grep;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The DirectoryWalker class collects the regular files of a directory tree.
+ * Every directory is listed by its own task on a ForkJoinPool, so idle threads steal the subdirectories
+ * of busy ones, while the result keeps the order of a sequential walk: entries sorted by name,
+ * files of a subdirectory in place of the subdirectory.
+ * Symbolic links and special files found in the tree are skipped.
+ * Directories which can not be listed are kept in the result in place of their files,
+ * their errors are available through {@link #failure(Path)}.
+ */
+public class DirectoryWalker {
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private final ForkJoinPool pool;
+    private final int maxDepth;
+    private final List<PathMatcher> excludedFiles;
+    private final List<PathMatcher> excludedDirectories;
+    private final Map<Path, IOException> failures = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxDepth            the deepest level of the entries to collect, the entries of the root are at level 1.
+     * @param excludedFiles       globs of the names of the files to skip.
+     * @param excludedDirectories globs of the names of the subdirectories to skip.
+     */
+    public DirectoryWalker(ForkJoinPool pool, int maxDepth, List<String> excludedFiles, List<String> excludedDirectories) {
+        this.pool = pool;
+        this.maxDepth = maxDepth;
+        this.excludedFiles = matchers(excludedFiles);
+        this.excludedDirectories = matchers(excludedDirectories);
+    }
+
+    private static List<PathMatcher> matchers(List<String> globs) {
+        return globs.stream().map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob)).toList();
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, Path path) {
+        Path name = path.getFileName();
+        return name != null && matchers.stream().anyMatch(matcher -> matcher.matches(name));
+    }
+
+    /**
+     * Checks whether the name of the file matches one of the excluded globs.
+     */
+    public boolean isExcluded(Path file) {
+        return matches(excludedFiles, file);
+    }
+
+    /**
+     * Returns the error of listing the directory, or null if it was listed successfully.
+     */
+    public IOException failure(Path directory) {
+        return failures.get(directory);
+    }
+
+    /**
+     * Starts collecting the files of the directory tree on the pool.
+     *
+     * @return the task which returns paths of the files resolved against the root, in the order of a sequential walk.
+     */
+    public ForkJoinTask<List<Path>> walk(Path root) {
+        return pool.submit(new DirectoryTask(root, 1));
+    }
+
+    private class DirectoryTask extends RecursiveTask<List<Path>> {
+        private final Path directory;
+        private final int depth;
+
+        DirectoryTask(Path directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                stream.forEach(entries::add);
+            } catch (IOException e) {
+                failures.put(directory, e);
+                return List.of(directory);
+            } catch (DirectoryIteratorException e) {
+                failures.put(directory, e.getCause());
+                return List.of(directory);
+            }
+            entries.sort(null);
+
+            // Each element is either a file or a forked task listing a subdirectory
+            List<Object> parts = new ArrayList<>();
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    if (depth < maxDepth && !matches(excludedDirectories, entry)) {
+                        parts.add(new DirectoryTask(entry, depth + 1).fork());
+                    }
+                } else if (attributes.isRegularFile() && !isExcluded(entry)) {
+                    parts.add(entry);
+                }
+            }
+
+            List<Path> files = new ArrayList<>();
+            for (Object part : parts) {
+                if (part instanceof DirectoryTask task) {
+                    files.addAll(task.join());
+                } else {
+                    files.add((Path) part);
+                }
+            }
+            return files;
+        }
+    }
+}
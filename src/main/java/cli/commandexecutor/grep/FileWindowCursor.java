@@ -0,0 +1,77 @@
+package cli.commandexecutor.grep;
+
+import cli.commandexecutor.fileinput.FileInput;
+import cli.ioenvironment.LineDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The FileWindowCursor class gives access to bytes of a file at arbitrary offsets through one cached window,
+ * which is replaced when an offset outside of it is requested. Nearby accesses, like scanning lines
+ * around a match, reuse the window instead of reading the file again.
+ */
+class FileWindowCursor {
+    private final FileInput input;
+    private final int windowSize;
+    private ByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+
+    FileWindowCursor(FileInput input, int windowSize) {
+        this.input = input;
+        this.windowSize = windowSize;
+    }
+
+    private void load(long start, long end) throws IOException {
+        if (window != null && start >= windowStart && end <= windowEnd) {
+            return;
+        }
+        // Keep some bytes before the requested range, lines are often scanned backwards
+        long from = Math.max(0, Math.min(start, end - windowSize / 2));
+        int length = (int) Math.min(Math.max(windowSize, end - from), input.size() - from);
+        window = input.window(from, length);
+        windowStart = from;
+        windowEnd = from + window.limit();
+    }
+
+    byte get(long offset) throws IOException {
+        load(offset, offset + 1);
+        return window.get((int) (offset - windowStart));
+    }
+
+    /**
+     * Returns the offset of the first '\n' at or after the offset, or the size of the file if there is none.
+     */
+    long lineEnd(long offset) throws IOException {
+        long size = input.size();
+        while (offset < size) {
+            load(offset, offset + 1);
+            int limit = window.limit();
+            for (int i = (int) (offset - windowStart); i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            offset = windowEnd;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the start of the line containing the offset, not earlier than {@code lowerBound}.
+     */
+    long lineStart(long offset, long lowerBound) throws IOException {
+        for (long i = offset - 1; i >= lowerBound; i--) {
+            if (get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return lowerBound;
+    }
+
+    CharSequence decode(LineDecoder decoder, long start, long end) throws IOException {
+        load(start, end);
+        return decoder.decode(window, (int) (start - windowStart), (int) (end - windowStart));
+    }
+}
@@ -0,0 +1,58 @@
+package cli.commandexecutor.grep;
+
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The GrepPattern interface represents a compiled grep pattern.
+ * A compiled pattern is immutable and can be shared between threads, each thread creates its own matchers.
+ */
+public interface GrepPattern {
+    /**
+     * Creates a new matcher of the pattern.
+     */
+    LineMatcher matcher();
+
+    /**
+     * Returns the pattern which searches candidate occurrences in UTF-8 encoded bytes.
+     *
+     * @return the byte pattern, or null if the pattern can only be matched against decoded lines.
+     */
+    default BytePattern bytePattern() {
+        return null;
+    }
+
+    /**
+     * Compiles the pattern. Plain strings, either given with -F or -w or containing no regular expression
+     * metacharacters, are searched by {@link LiteralPattern} without java.util.regex.
+     * If the case is ignored, this is only done for ASCII strings, others are matched by {@link RegexPattern}.
+     *
+     * @throws PatternSyntaxException if the pattern is not a valid regular expression.
+     */
+    static GrepPattern compile(String pattern, PatternOptions options) {
+        boolean literal = options.fixedStrings() || options.wholeWord() || LiteralPattern.isLiteral(pattern);
+        if (literal && (!options.ignoreCase() || LiteralPattern.isAscii(pattern))) {
+            return new LiteralPattern(pattern, options.ignoreCase(), options.wholeWord());
+        }
+        return new RegexPattern(pattern, literal, options.ignoreCase(), options.wholeWord());
+    }
+
+    /**
+     * Compiles several patterns, a line matches if any of them does.
+     * Plain strings are searched at once by {@link MultiLiteralPattern}, with the same restriction
+     * for ignored case as for a single string. If any of the patterns is a regular expression,
+     * all of them are matched as an alternation by {@link RegexPattern}.
+     *
+     * @throws PatternSyntaxException if a pattern is not a valid regular expression.
+     */
+    static GrepPattern compile(List<String> patterns, PatternOptions options) {
+        if (patterns.size() == 1) {
+            return compile(patterns.getFirst(), options);
+        }
+        boolean literal = options.fixedStrings() || options.wholeWord() || patterns.stream().allMatch(LiteralPattern::isLiteral);
+        if (literal && (!options.ignoreCase() || patterns.stream().allMatch(LiteralPattern::isAscii))) {
+            return new MultiLiteralPattern(patterns, options.ignoreCase(), options.wholeWord());
+        }
+        return new RegexPattern(patterns, literal, options.ignoreCase(), options.wholeWord());
+    }
+}
@@ -0,0 +1,114 @@
+package cli.commandexecutor.grep;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The GrepPatternCache class keeps the most recently used compiled patterns, so grep in a loop
+ * or in several pipeline stages compiles the same patterns once.
+ * Patterns are keyed by their text and options and evicted in least recently used order.
+ * Very long pattern lists, like large -f files, are compiled every time and not cached,
+ * so the cache never holds more than {@code capacity} patterns of a bounded size.
+ * The cache is thread-safe, a pattern is compiled outside the lock, so slow compilations do not block other lookups.
+ */
+public class GrepPatternCache {
+    public static final int DEFAULT_CAPACITY = 64;
+    static final int MAX_CACHED_LENGTH = 64 * 1024;
+
+    private static final GrepPatternCache SHARED = new GrepPatternCache(DEFAULT_CAPACITY);
+
+    private record Key(List<String> patterns, PatternOptions options) {
+    }
+
+    private final Map<Key, GrepPattern> patterns;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public GrepPatternCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.patterns = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GrepPattern> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by all grep commands of the process.
+     */
+    public static GrepPatternCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the compiled patterns, compiling them with {@link GrepPattern#compile(List, PatternOptions)} on a miss.
+     *
+     * @throws PatternSyntaxException if a pattern is not a valid regular expression, such patterns are not cached.
+     */
+    public GrepPattern compile(List<String> patterns, PatternOptions options) {
+        int length = 0;
+        for (String pattern : patterns) {
+            length += pattern.length();
+        }
+        if (length > MAX_CACHED_LENGTH) {
+            misses.increment();
+            return GrepPattern.compile(patterns, options);
+        }
+        Key key = new Key(List.copyOf(patterns), options);
+        GrepPattern pattern;
+        lock.lock();
+        try {
+            pattern = this.patterns.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (pattern != null) {
+            hits.increment();
+            return pattern;
+        }
+        misses.increment();
+        GrepPattern compiled = GrepPattern.compile(patterns, options);
+        lock.lock();
+        try {
+            // Another thread may have compiled the same patterns meanwhile, keep the cached one
+            pattern = this.patterns.putIfAbsent(key, compiled);
+        } finally {
+            lock.unlock();
+        }
+        return pattern != null ? pattern : compiled;
+    }
+
+    /**
+     * Returns the number of lookups which found compiled patterns in the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to compile the patterns.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached patterns.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return patterns.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package cli.commandexecutor.grep;
+
+/**
+ * The LineMatcher interface finds occurrences of a GrepPattern in lines.
+ * A matcher keeps the bounds of the last occurrence found, so it must not be shared between threads.
+ */
+public interface LineMatcher {
+    /**
+     * Finds the first occurrence of the pattern in the line starting at or after {@code from}.
+     *
+     * @return true if an occurrence was found, its bounds are then returned by {@link #start()} and {@link #end()}.
+     */
+    boolean find(CharSequence line, int from);
+
+    /**
+     * Finds the first occurrence of the pattern in the line.
+     */
+    default boolean find(CharSequence line) {
+        return find(line, 0);
+    }
+
+    /**
+     * Returns the index of the first character of the last occurrence found.
+     */
+    int start();
+
+    /**
+     * Returns the index following the last character of the last occurrence found.
+     */
+    int end();
+}
@@ -0,0 +1,58 @@
+package cli.commandexecutor.grep;
+
+/**
+ * The LineRingBuffer class keeps copies of the last lines of the input, up to a fixed number of them.
+ * Lines are copied into reusable builders, so remembering a line does not allocate once the buffer is warmed up.
+ */
+public class LineRingBuffer {
+    private final StringBuilder[] lines;
+    private int start;
+    private int size;
+
+    public LineRingBuffer(int capacity) {
+        lines = new StringBuilder[capacity];
+        for (int i = 0; i < capacity; i++) {
+            lines[i] = new StringBuilder();
+        }
+    }
+
+    /**
+     * Remembers a copy of the line, forgetting the oldest line if the buffer is full.
+     */
+    public void add(CharSequence line) {
+        if (lines.length == 0) {
+            return;
+        }
+        int index = (start + size) % lines.length;
+        if (size == lines.length) {
+            start = (start + 1) % lines.length;
+        } else {
+            size++;
+        }
+        lines[index].setLength(0);
+        lines[index].append(line);
+    }
+
+    /**
+     * Returns the line with the given index, the oldest line has index 0.
+     */
+    public CharSequence get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return lines[(start + index) % lines.length];
+    }
+
+    public int capacity() {
+        return lines.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,203 @@
+package cli.commandexecutor.grep;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The LiteralPattern class searches a plain string with the Boyer–Moore–Horspool algorithm.
+ * The shift table is indexed by the low byte of a character, characters sharing a bucket keep the smallest shift.
+ * If the case is ignored, ASCII letters of both the pattern and the line are folded to lower case.
+ * Whole words are checked with the same Unicode word characters as {@code \b} of {@link RegexPattern}.
+ * The same search over UTF-8 bytes finds candidate lines in files without decoding them.
+ */
+public class LiteralPattern implements GrepPattern {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final char[] pattern;
+    private final boolean ignoreCase;
+    private final boolean wholeWord;
+    private final int[] shifts = new int[256];
+    private final BytePattern bytePattern;
+
+    public LiteralPattern(String pattern, boolean ignoreCase, boolean wholeWord) {
+        this.pattern = pattern.toCharArray();
+        this.ignoreCase = ignoreCase;
+        this.wholeWord = wholeWord;
+        if (ignoreCase) {
+            for (int i = 0; i < this.pattern.length; i++) {
+                this.pattern[i] = fold(this.pattern[i]);
+            }
+        }
+        int length = this.pattern.length;
+        Arrays.fill(shifts, Math.max(length, 1));
+        for (int i = 0; i < length - 1; i++) {
+            shifts[this.pattern[i] & 0xFF] = length - 1 - i;
+        }
+        this.bytePattern = length == 0 ? null : new ByteLiteral(new String(this.pattern).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks whether the pattern contains no regular expression metacharacters, so it matches itself only.
+     */
+    public static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (METACHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isAscii(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the code point is a word character of {@code \w} in the Unicode mode of java.util.regex.
+     */
+    static boolean isWordCharacter(int codePoint) {
+        if (Character.isAlphabetic(codePoint) || codePoint == 0x200C || codePoint == 0x200D) {
+            return true;
+        }
+        return switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK, Character.ENCLOSING_MARK, Character.COMBINING_SPACING_MARK,
+                 Character.DECIMAL_DIGIT_NUMBER, Character.CONNECTOR_PUNCTUATION -> true;
+            default -> false;
+        };
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    static boolean isWordBoundary(CharSequence line, int index) {
+        boolean wordBefore = index > 0 && isWordCharacter(Character.codePointBefore(line, index));
+        boolean wordAfter = index < line.length() && isWordCharacter(Character.codePointAt(line, index));
+        return wordBefore != wordAfter;
+    }
+
+    private int indexOf(CharSequence line, int from) {
+        int length = pattern.length;
+        int last = length - 1;
+        int limit = line.length() - length;
+        int position = from;
+        while (position <= limit) {
+            char c = line.charAt(position + last);
+            if (ignoreCase) {
+                c = fold(c);
+            }
+            if (c == pattern[last]) {
+                int i = last - 1;
+                while (i >= 0 && (ignoreCase ? fold(line.charAt(position + i)) : line.charAt(position + i)) == pattern[i]) {
+                    i--;
+                }
+                if (i < 0) {
+                    return position;
+                }
+            }
+            position += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    @Override
+    public BytePattern bytePattern() {
+        return bytePattern;
+    }
+
+    @Override
+    public LineMatcher matcher() {
+        return new LineMatcher() {
+            private int start;
+            private int end;
+
+            @Override
+            public boolean find(CharSequence line, int from) {
+                if (pattern.length == 0) {
+                    if (from > line.length()) {
+                        return false;
+                    }
+                    start = from;
+                    end = from;
+                    return true;
+                }
+                int position = from;
+                while ((position = indexOf(line, position)) >= 0) {
+                    int matchEnd = position + pattern.length;
+                    if (!wholeWord || ((position == 0 || isWordBoundary(line, position))
+                            && (matchEnd == line.length() || isWordBoundary(line, matchEnd)))) {
+                        start = position;
+                        end = matchEnd;
+                        return true;
+                    }
+                    position++;
+                }
+                return false;
+            }
+
+            @Override
+            public int start() {
+                return start;
+            }
+
+            @Override
+            public int end() {
+                return end;
+            }
+        };
+    }
+
+    /**
+     * Horspool search of the UTF-8 encoding of the pattern.
+     * UTF-8 never encodes a character as a part of another one, so every occurrence of the string
+     * is an occurrence of its bytes. Bytes of non-ASCII characters are never folded.
+     */
+    private class ByteLiteral implements BytePattern {
+        private final byte[] bytes;
+        private final int[] byteShifts = new int[256];
+
+        ByteLiteral(byte[] bytes) {
+            this.bytes = bytes;
+            Arrays.fill(byteShifts, bytes.length);
+            for (int i = 0; i < bytes.length - 1; i++) {
+                byteShifts[bytes[i] & 0xFF] = bytes.length - 1 - i;
+            }
+        }
+
+        @Override
+        public int indexIn(ByteBuffer buffer, int from, int to) {
+            int last = bytes.length - 1;
+            int position = from;
+            while (position <= to - bytes.length) {
+                byte b = foldByte(buffer.get(position + last));
+                if (b == bytes[last]) {
+                    int i = last - 1;
+                    while (i >= 0 && foldByte(buffer.get(position + i)) == bytes[i]) {
+                        i--;
+                    }
+                    if (i < 0) {
+                        return position;
+                    }
+                }
+                position += byteShifts[b & 0xFF];
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isExact() {
+            // Bytes are folded exactly like characters, only whole words need the decoded line
+            return !wholeWord;
+        }
+
+        private byte foldByte(byte b) {
+            return ignoreCase && b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package cli.commandexecutor.grep;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MultiLiteralPattern class searches many plain strings at once with an Aho–Corasick automaton,
+ * so a line is scanned once regardless of the number of strings.
+ * Like GNU grep, the matcher returns the leftmost occurrence of any string, the longest one if several start there.
+ * If the case is ignored, ASCII letters of both the strings and the line are folded to lower case.
+ * Whole words are checked as in {@link LiteralPattern}.
+ * A second automaton over the UTF-8 encodings of the strings finds candidate lines in files without decoding them.
+ */
+public class MultiLiteralPattern implements GrepPattern {
+    private final boolean ignoreCase;
+    private final boolean wholeWord;
+    private final boolean matchesEmpty;
+    private final AhoCorasickAutomaton automaton;
+    private final BytePattern bytePattern;
+
+    public MultiLiteralPattern(List<String> patterns, boolean ignoreCase, boolean wholeWord) {
+        this.ignoreCase = ignoreCase;
+        this.wholeWord = wholeWord;
+        List<int[]> words = new ArrayList<>(patterns.size());
+        List<int[]> byteWords = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            int[] word = new int[pattern.length()];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = fold(pattern.charAt(i));
+            }
+            words.add(word);
+            byte[] bytes = pattern.getBytes(StandardCharsets.UTF_8);
+            int[] byteWord = new int[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                byteWord[i] = fold(bytes[i] & 0xFF);
+            }
+            byteWords.add(byteWord);
+        }
+        this.matchesEmpty = patterns.stream().anyMatch(String::isEmpty);
+        this.automaton = new AhoCorasickAutomaton(words);
+        // The empty string occurs in every line, there is nothing to search in bytes
+        this.bytePattern = matchesEmpty ? null : new ByteLiterals(new AhoCorasickAutomaton(byteWords));
+    }
+
+    private int fold(int c) {
+        return ignoreCase && c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    @Override
+    public BytePattern bytePattern() {
+        return bytePattern;
+    }
+
+    @Override
+    public LineMatcher matcher() {
+        return new LineMatcher() {
+            private int start;
+            private int end;
+
+            @Override
+            public boolean find(CharSequence line, int from) {
+                int length = line.length();
+                if (from > length) {
+                    return false;
+                }
+                int bestStart = -1;
+                int bestEnd = -1;
+                if (matchesEmpty) {
+                    bestStart = from;
+                    bestEnd = from;
+                }
+                int state = AhoCorasickAutomaton.ROOT;
+                for (int i = from; i < length; i++) {
+                    // Occurrences ending later start after the current state, they can not be better
+                    if (bestStart >= 0 && i - automaton.depth(state) > bestStart) {
+                        break;
+                    }
+                    state = automaton.next(state, fold(line.charAt(i)));
+                    int matchEnd = i + 1;
+                    for (int word = automaton.output(state); word >= 0; word = automaton.nextOutput(word)) {
+                        int matchStart = matchEnd - automaton.depth(word);
+                        if (bestStart >= 0 && matchStart > bestStart) {
+                            break;
+                        }
+                        if (!wholeWord || ((matchStart == 0 || LiteralPattern.isWordBoundary(line, matchStart))
+                                && (matchEnd == length || LiteralPattern.isWordBoundary(line, matchEnd)))) {
+                            if (bestStart < 0 || matchStart < bestStart || matchEnd > bestEnd) {
+                                bestStart = matchStart;
+                                bestEnd = matchEnd;
+                            }
+                            break;
+                        }
+                    }
+                }
+                start = bestStart;
+                end = bestEnd;
+                return bestStart >= 0;
+            }
+
+            @Override
+            public int start() {
+                return start;
+            }
+
+            @Override
+            public int end() {
+                return end;
+            }
+        };
+    }
+
+    /**
+     * Aho–Corasick search of the UTF-8 encodings of the strings.
+     * Occurrences are found in the order of their ends, so the first one found lies in the first line
+     * containing any of the strings. Bytes of non-ASCII characters are never folded.
+     */
+    private class ByteLiterals implements BytePattern {
+        private final AhoCorasickAutomaton byteAutomaton;
+
+        ByteLiterals(AhoCorasickAutomaton byteAutomaton) {
+            this.byteAutomaton = byteAutomaton;
+        }
+
+        @Override
+        public boolean isExact() {
+            // Bytes are folded exactly like characters, only whole words need the decoded line
+            return !wholeWord;
+        }
+
+        @Override
+        public int indexIn(ByteBuffer buffer, int from, int to) {
+            int state = AhoCorasickAutomaton.ROOT;
+            for (int i = from; i < to; i++) {
+                state = byteAutomaton.next(state, fold(buffer.get(i) & 0xFF));
+                int word = byteAutomaton.output(state);
+                if (word >= 0) {
+                    return i + 1 - byteAutomaton.depth(word);
+                }
+            }
+            return -1;
+        }
+    }
+}
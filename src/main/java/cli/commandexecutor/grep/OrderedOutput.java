@@ -0,0 +1,129 @@
+package cli.commandexecutor.grep;
+
+import cli.ioenvironment.LineEncoder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The OrderedOutput class is the output of one of several files which are searched concurrently
+ * but printed in the order of the files.
+ * Until the file gets its turn, its output is kept in a buffer of a bounded size,
+ * and the search blocks when the buffer is full. When the turn comes, the buffer is written to the sink
+ * and the rest of the output goes to the sink directly, so memory does not depend on the size of the output.
+ * Blocking is done through {@link ForkJoinPool#managedBlock}, so a pool running the searches
+ * can start another thread for the file whose turn it is.
+ */
+public class OrderedOutput implements LineEncoder.ByteSink {
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final LineEncoder.ByteSink sink;
+    private final byte[] buffer;
+    private int size;
+    private boolean direct;
+    private boolean closed;
+    private IOException failure;
+
+    public OrderedOutput(LineEncoder.ByteSink sink) {
+        this(sink, BUFFER_SIZE);
+    }
+
+    OrderedOutput(LineEncoder.ByteSink sink, int bufferSize) {
+        this.sink = sink;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes the bytes to the sink if it is the turn of this output, otherwise buffers them,
+     * waiting for the turn while the buffer is full.
+     *
+     * @throws IOException if the sink fails or the output has been closed.
+     */
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (closed) {
+                throw new IOException("Output closed");
+            }
+            if (direct) {
+                writeToSink(bytes, offset, length);
+                return;
+            }
+            if (size == buffer.length) {
+                awaitSpace();
+                continue;
+            }
+            int copied = Math.min(length, buffer.length - size);
+            System.arraycopy(bytes, offset, buffer, size, copied);
+            size += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    /**
+     * Gives the turn to this output: writes the buffered bytes to the sink
+     * and lets the following writes go to the sink directly.
+     * Must be called by the thread which writes to the sink, after the previous output is complete.
+     */
+    public synchronized void release() throws IOException {
+        if (direct || closed) {
+            return;
+        }
+        direct = true;
+        notifyAll();
+        if (size > 0) {
+            writeToSink(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Discards the output, the following writes fail, so a search which is no longer needed stops.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Returns the error of the sink, which distinguishes a failed output from a failed search.
+     *
+     * @return the error, or null if the sink has not failed.
+     */
+    public synchronized IOException failure() {
+        return failure;
+    }
+
+    private void writeToSink(byte[] bytes, int offset, int length) throws IOException {
+        try {
+            sink.write(bytes, offset, length);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void awaitSpace() throws IOException {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    while (!isReleasable()) {
+                        OrderedOutput.this.wait();
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return direct || closed || size < buffer.length;
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package cli.commandexecutor.grep;
+
+import cli.commandexecutor.fileinput.FileInput;
+import cli.ioenvironment.LineDecoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The ParallelGrepSearcher class searches a large file in parallel.
+ * The file is split into chunks ending at line terminators, the chunks are scanned on a ForkJoinPool
+ * and only report the offsets of their matching lines. The merge phase takes the chunks in the order of the file,
+ * as soon as each of them is scanned, and passes the matching lines to the ContextPrinter together with
+ * their context, which can cross the borders of chunks. At most a few chunks per thread are in flight,
+ * so memory does not depend on the size of the file. When the printer is done, the chunks in flight are cancelled
+ * and no more chunks are read.
+ */
+public class ParallelGrepSearcher {
+    public static final long CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 2;
+    private static final int MERGE_WINDOW_SIZE = 1024 * 1024;
+
+    private final GrepPattern pattern;
+    private final ContextPrinter contextPrinter;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final LineDecoder decoder = new LineDecoder(StandardCharsets.UTF_8);
+
+    public ParallelGrepSearcher(GrepPattern pattern, ContextPrinter contextPrinter, ForkJoinPool pool) {
+        this(pattern, contextPrinter, pool, CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize the size of the chunks, each of them is extended to the end of its last line.
+     */
+    public ParallelGrepSearcher(GrepPattern pattern, ContextPrinter contextPrinter, ForkJoinPool pool, long chunkSize) {
+        this.pattern = pattern;
+        this.contextPrinter = contextPrinter;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Searches the whole input, which must have a known size.
+     */
+    public void search(FileInput input) throws IOException {
+        long size = input.size();
+        FileWindowCursor cursor = new FileWindowCursor(input, MERGE_WINDOW_SIZE);
+        Deque<ForkJoinTask<long[]>> pending = new ArrayDeque<>();
+        int maxPending = pool.getParallelism() * CHUNKS_PER_THREAD;
+        long fedUpTo = 0;
+        long chunkStart = 0;
+        try {
+            while ((chunkStart < size || !pending.isEmpty()) && !contextPrinter.isDone()) {
+                if (chunkStart < size && pending.size() < maxPending) {
+                    long chunkEnd = chunkEnd(cursor, chunkStart, size);
+                    long from = chunkStart;
+                    pending.add(pool.submit(() -> scanChunk(input, from, chunkEnd)));
+                    chunkStart = chunkEnd;
+                    continue;
+                }
+                fedUpTo = merge(cursor, join(pending.removeFirst()), fedUpTo);
+            }
+            while (contextPrinter.isPrintingAfterContext() && fedUpTo < size) {
+                long end = cursor.lineEnd(fedUpTo);
+                contextPrinter.accept(cursor.decode(decoder, fedUpTo, end), false);
+                fedUpTo = end + 1;
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private static long[] join(ForkJoinTask<long[]> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the end of the chunk starting at the offset: the offset following the first line terminator
+     * after the chunk size, or the end of the file.
+     */
+    private long chunkEnd(FileWindowCursor cursor, long chunkStart, long size) throws IOException {
+        long nominalEnd = chunkStart + chunkSize;
+        if (nominalEnd >= size) {
+            return size;
+        }
+        return Math.min(cursor.lineEnd(nominalEnd - 1) + 1, size);
+    }
+
+    /**
+     * Finds the matching lines of the chunk.
+     *
+     * @return pairs of the start and the end offsets of the matching lines.
+     */
+    private long[] scanChunk(FileInput input, long from, long to) {
+        try {
+            if (to - from > Integer.MAX_VALUE) {
+                throw new IOException("Line is too long");
+            }
+            ByteBuffer window = input.window(from, (int) (to - from));
+            LineMatcher matcher = pattern.matcher();
+            BytePattern bytePattern = pattern.bytePattern();
+            boolean exact = bytePattern != null && bytePattern.isExact();
+            LineDecoder chunkDecoder = new LineDecoder(StandardCharsets.UTF_8);
+            long[] matches = new long[16];
+            int count = 0;
+            int limit = window.limit();
+            int position = 0;
+            while (position < limit) {
+                int lineStart = position;
+                if (bytePattern != null) {
+                    int candidate = bytePattern.indexIn(window, position, limit);
+                    if (candidate < 0) {
+                        break;
+                    }
+                    lineStart = candidate;
+                    while (lineStart > position && window.get(lineStart - 1) != '\n') {
+                        lineStart--;
+                    }
+                }
+                int lineEnd = lineStart;
+                while (lineEnd < limit && window.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                if (exact || matcher.find(chunkDecoder.decode(window, lineStart, lineEnd))) {
+                    if (count + 2 > matches.length) {
+                        matches = Arrays.copyOf(matches, matches.length * 2);
+                    }
+                    matches[count++] = from + lineStart;
+                    matches[count++] = from + lineEnd;
+                }
+                position = lineEnd + 1;
+            }
+            return Arrays.copyOf(matches, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Passes the matching lines of a chunk and their context to the printer.
+     *
+     * @param fedUpTo the offset up to which the lines were already passed to the printer.
+     * @return the offset up to which the lines are passed to the printer.
+     */
+    private long merge(FileWindowCursor cursor, long[] matches, long fedUpTo) throws IOException {
+        for (int i = 0; i < matches.length && !contextPrinter.isDone(); i += 2) {
+            long matchStart = matches[i];
+            while (contextPrinter.isPrintingAfterContext() && fedUpTo < matchStart) {
+                long end = cursor.lineEnd(fedUpTo);
+                contextPrinter.accept(cursor.decode(decoder, fedUpTo, end), false);
+                fedUpTo = end + 1;
+            }
+            if (fedUpTo < matchStart) {
+                long contextStart = matchStart;
+                for (int lines = 0; lines < contextPrinter.before() && contextStart > fedUpTo; lines++) {
+                    contextStart = cursor.lineStart(contextStart - 1, fedUpTo);
+                }
+                if (contextStart > fedUpTo) {
+                    contextPrinter.skip();
+                }
+                while (contextStart < matchStart) {
+                    long end = cursor.lineEnd(contextStart);
+                    contextPrinter.accept(cursor.decode(decoder, contextStart, end), false);
+                    contextStart = end + 1;
+                }
+            }
+            contextPrinter.accept(contextPrinter.isCounting() ? null : cursor.decode(decoder, matchStart, matches[i + 1]), true);
+            fedUpTo = matches[i + 1] + 1;
+        }
+        return fedUpTo;
+    }
+}
@@ -0,0 +1,11 @@
+package cli.commandexecutor.grep;
+
+/**
+ * The PatternOptions record holds the grep flags which change how a pattern is compiled.
+ *
+ * @param fixedStrings the pattern is a plain string, not a regular expression (-F).
+ * @param ignoreCase   letters match regardless of their case (-i).
+ * @param wholeWord    the pattern only matches whole words (-w).
+ */
+public record PatternOptions(boolean fixedStrings, boolean ignoreCase, boolean wholeWord) {
+}
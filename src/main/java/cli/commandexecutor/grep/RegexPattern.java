@@ -0,0 +1,70 @@
+package cli.commandexecutor.grep;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The RegexPattern class matches lines with java.util.regex.
+ * Character classes follow Unicode, -w is implemented with word boundary lookarounds.
+ * Several patterns are matched as one alternation.
+ */
+public class RegexPattern implements GrepPattern {
+    private final Pattern pattern;
+
+    /**
+     * @param pattern    regular expression, or a plain string if {@code literal} is set.
+     * @param literal    whether the pattern is a plain string.
+     * @param ignoreCase whether letters match regardless of their case.
+     * @param wholeWord  whether the pattern only matches whole words.
+     */
+    public RegexPattern(String pattern, boolean literal, boolean ignoreCase, boolean wholeWord) {
+        this(List.of(pattern), literal, ignoreCase, wholeWord);
+    }
+
+    /**
+     * @param patterns   regular expressions, or plain strings if {@code literal} is set, a line matches if any of them does.
+     * @param literal    whether the patterns are plain strings.
+     * @param ignoreCase whether letters match regardless of their case.
+     * @param wholeWord  whether the patterns only match whole words.
+     */
+    public RegexPattern(List<String> patterns, boolean literal, boolean ignoreCase, boolean wholeWord) {
+        int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+        flags |= Pattern.UNICODE_CHARACTER_CLASS;
+        String regex = patterns.size() == 1 ? quoteIfLiteral(patterns.getFirst(), literal || wholeWord)
+                : String.join("|", patterns.stream().map(pattern -> "(?:" + quoteIfLiteral(pattern, literal || wholeWord) + ")").toList());
+        if (patterns.isEmpty()) {
+            // No patterns match no lines
+            regex = "(?!)";
+        } else if (wholeWord) {
+            regex = "(?<=\\b|^)" + (patterns.size() == 1 ? regex : "(?:" + regex + ")") + "(?=\\b|$)";
+        }
+        this.pattern = Pattern.compile(regex, flags);
+    }
+
+    private static String quoteIfLiteral(String pattern, boolean literal) {
+        return literal ? Pattern.quote(pattern) : pattern;
+    }
+
+    @Override
+    public LineMatcher matcher() {
+        Matcher matcher = pattern.matcher("");
+        return new LineMatcher() {
+            @Override
+            public boolean find(CharSequence line, int from) {
+                matcher.reset(line);
+                return from == 0 ? matcher.find() : from <= line.length() && matcher.find(from);
+            }
+
+            @Override
+            public int start() {
+                return matcher.start();
+            }
+
+            @Override
+            public int end() {
+                return matcher.end();
+            }
+        };
+    }
+}
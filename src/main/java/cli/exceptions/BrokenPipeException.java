@@ -0,0 +1,13 @@
+package cli.exceptions;
+
+import java.io.IOException;
+
+public class BrokenPipeException extends IOException {
+    public BrokenPipeException() {
+        super("Broken pipe");
+    }
+
+    public BrokenPipeException(Throwable cause) {
+        super("Broken pipe", cause);
+    }
+}
@@ -0,0 +1,20 @@
+package cli.ioenvironment;
+
+/**
+ * The FlushPolicy enum defines when the buffered output of a command is passed to the underlying stream.
+ * The output is always flushed when the buffer is full and when the command completes.
+ */
+public enum FlushPolicy {
+    /**
+     * Flush after every write, the output is not buffered at all.
+     */
+    ALWAYS,
+    /**
+     * Flush after a write containing a line separator, suitable for a terminal.
+     */
+    LINE,
+    /**
+     * Flush only when the buffer is full, suitable for pipes and files.
+     */
+    BLOCK
+}
@@ -1,23 +1,66 @@
 package cli.ioenvironment;
 
+import cli.exceptions.BrokenPipeException;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The IOEnvironmentImpl class implements the StreamingIOEnvironment interface over input, output and error streams.
+ * The input is read in blocks by a LineReader and decoded with the configured charset (UTF-8 by default),
+ * the output is buffered and flushed according to the FlushPolicy.
+ * Once the output turns out to be a broken pipe, the command is being stopped like by SIGPIPE,
+ * so its error messages are not printed.
+ * Files are copied to a file or to the standard output with FileChannel.transferTo, bypassing the Java heap.
+ */
+public class IOEnvironmentImpl implements StreamingIOEnvironment {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int TRANSFER_BUFFER_SIZE = 256 * 1024;
+    // The message of the IOException the JDK throws for EPIPE
+    private static final String BROKEN_PIPE = "Broken pipe";
+
+    private static FileChannel standardOutputChannel;
 
-public class IOEnvironmentImpl implements IOEnvironment {
-    private final InputStream inputStream;
     private final OutputStream outputStream;
     private final OutputStream errorStream;
+    private final FlushPolicy flushPolicy;
+    private final Charset charset;
+    private final LineReader lineReader;
+    private boolean outputBroken;
+
+    private byte[] outputBuffer;
+    private int outputCount;
+    private ByteBuffer transferBuffer;
 
     public IOEnvironmentImpl(InputStream inputStream, OutputStream outputStream, OutputStream errorStream) {
-        this.inputStream = inputStream;
+        this(inputStream, outputStream, errorStream, FlushPolicy.ALWAYS);
+    }
+
+    public IOEnvironmentImpl(InputStream inputStream, OutputStream outputStream, OutputStream errorStream, FlushPolicy flushPolicy) {
+        this(inputStream, outputStream, errorStream, flushPolicy, StandardCharsets.UTF_8);
+    }
+
+    public IOEnvironmentImpl(InputStream inputStream, OutputStream outputStream, OutputStream errorStream,
+                             FlushPolicy flushPolicy, Charset charset) {
         this.outputStream = outputStream;
         this.errorStream = errorStream;
+        this.flushPolicy = flushPolicy;
+        this.charset = charset;
+        this.lineReader = new LineReader(inputStream, charset);
     }
     @Override
     public void writeError(@NotNull String error) {
+        if (outputBroken) {
+            return;
+        }
         try {
-            errorStream.write(error.getBytes());
+            flush(); // Keep the order of output and error messages
+            errorStream.write(error.getBytes(charset));
             errorStream.flush();
         } catch (IOException e) {
 
@@ -27,33 +70,148 @@ public class IOEnvironmentImpl implements IOEnvironment {
 
     @Override
     public void writeOutput(@NotNull String output) throws IOException {
-        outputStream.write(output.getBytes());
-        outputStream.flush();
+        byte[] bytes = output.getBytes(charset);
+        writeOutput(bytes, 0, bytes.length);
     }
 
     @Override
-    public String read() throws IOException {
-        StringBuilder sb = new StringBuilder();
-        int c;
-        while ((c = inputStream.read()) != -1) {
-            sb.append((char) c);
+    public void writeOutput(byte[] buffer, int offset, int length) throws IOException {
+        try {
+            if (flushPolicy == FlushPolicy.ALWAYS) {
+                outputStream.write(buffer, offset, length);
+                outputStream.flush();
+                return;
+            }
+            if (outputBuffer == null) {
+                outputBuffer = new byte[BUFFER_SIZE];
+            }
+            if (length > outputBuffer.length - outputCount) {
+                flushBuffer();
+            }
+            if (length >= outputBuffer.length) {
+                outputStream.write(buffer, offset, length);
+            } else {
+                System.arraycopy(buffer, offset, outputBuffer, outputCount, length);
+                outputCount += length;
+            }
+            if (flushPolicy == FlushPolicy.LINE && indexOf(buffer, offset, offset + length, (byte) '\n') >= 0) {
+                flushBuffer();
+                outputStream.flush();
+            }
+        } catch (BrokenPipeException e) {
+            outputBroken = true;
+            throw e;
         }
-        return sb.toString();
     }
 
+    /**
+     * Passes the buffered output to the underlying stream and flushes it.
+     * Called when the command completes.
+     */
     @Override
-    public String readLine() throws IOException {
-        StringBuilder sb = new StringBuilder();
-        int c;
-        while ((c = inputStream.read()) != -1) {
-            if (c == '\n') {
-                break;
+    public void flush() throws IOException {
+        try {
+            flushBuffer();
+            outputStream.flush();
+        } catch (BrokenPipeException e) {
+            outputBroken = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the rest of the file to the output.
+     * If the output is a file or the standard output, the bytes are moved by the kernel with FileChannel.transferTo,
+     * otherwise they are copied through a reusable buffer.
+     * A write to a pipe without readers (EPIPE) fails with BrokenPipeException, like a write to a pipeline stage does.
+     */
+    @Override
+    public long transferFrom(FileChannel channel) throws IOException {
+        WritableByteChannel target = outputChannel();
+        long transferred = 0;
+        if (target != null) {
+            flush();
+            long position = channel.position();
+            long count;
+            try {
+                while ((count = channel.transferTo(position, Long.MAX_VALUE, target)) > 0) {
+                    position += count;
+                    transferred += count;
+                }
+            } catch (IOException e) {
+                if (!BROKEN_PIPE.equals(e.getMessage())) {
+                    throw e;
+                }
+                outputBroken = true;
+                throw new BrokenPipeException(e);
             }
-            sb.append((char) c);
+            channel.position(position);
+        }
+        // Files with unknown size, like the ones in /proc, are not transferred by transferTo
+        if (transferBuffer == null) {
+            transferBuffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+        }
+        while (channel.read(transferBuffer) != -1) {
+            transferBuffer.flip();
+            transferred += transferBuffer.remaining();
+            writeOutput(transferBuffer);
+            transferBuffer.clear();
+        }
+        return transferred;
+    }
+
+    private WritableByteChannel outputChannel() {
+        if (outputStream instanceof FileOutputStream fileOutputStream) {
+            return fileOutputStream.getChannel();
+        }
+        if (outputStream == StandardStreams.OUTPUT) {
+            return standardOutputChannel();
         }
-        if (c == -1 && sb.isEmpty()) {
-            return null;
+        return null;
+    }
+
+    private static synchronized FileChannel standardOutputChannel() {
+        if (standardOutputChannel == null) {
+            // Never closed: closing it would close the file descriptor of the standard output
+            standardOutputChannel = new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        return standardOutputChannel;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (outputCount > 0) {
+            int count = outputCount;
+            outputCount = 0;
+            outputStream.write(outputBuffer, 0, count);
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        return lineReader.read(buffer, offset, length);
+    }
+
+    @Override
+    public String read() throws IOException {
+        return lineReader.readRemaining();
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return lineReader.readLine();
+    }
+
+    @Override
+    public Charset charset() {
+        return charset;
+    }
+
+    private static int indexOf(byte[] buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
         }
-        return sb.toString();
+        return -1;
     }
 }
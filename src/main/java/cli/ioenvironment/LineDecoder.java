@@ -0,0 +1,59 @@
+package cli.ioenvironment;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The LineDecoder class decodes lines stored as bytes with a reusable CharsetDecoder into a reusable char buffer.
+ * Malformed and unmappable bytes are replaced, so decoding never fails.
+ */
+public class LineDecoder {
+    private final CharsetDecoder decoder;
+    private CharBuffer charBuffer;
+
+    public LineDecoder(Charset charset) {
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    public Charset charset() {
+        return decoder.charset();
+    }
+
+    /**
+     * Decodes the bytes of the buffer between {@code start} and {@code end}.
+     * The position and the limit of the buffer are not changed.
+     *
+     * @return view of the decoded characters, valid until the next call.
+     */
+    public CharSequence decode(ByteBuffer bytes, int start, int end) throws CharacterCodingException {
+        int capacity = (int) Math.ceil((end - start) * (double) decoder.maxCharsPerByte());
+        if (charBuffer == null || charBuffer.capacity() < capacity) {
+            charBuffer = CharBuffer.allocate(Math.max(capacity, 128));
+        }
+        charBuffer.clear();
+        decoder.reset();
+        int position = bytes.position();
+        int limit = bytes.limit();
+        bytes.limit(end).position(start);
+        try {
+            CoderResult result = decoder.decode(bytes, charBuffer, true);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+            result = decoder.flush(charBuffer);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+        } finally {
+            bytes.limit(limit).position(position);
+        }
+        return charBuffer.flip();
+    }
+}
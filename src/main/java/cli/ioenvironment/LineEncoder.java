@@ -0,0 +1,176 @@
+package cli.ioenvironment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The LineEncoder class encodes lines into a reusable byte buffer
+ * and passes the bytes to a ByteSink when a line ends or the buffer is full.
+ * Lines are appended as spans of CharSequences, so a line can be assembled from parts of another line
+ * and constant strings without building an intermediate String.
+ * UTF-8 is encoded inline, other charsets go through a CharsetEncoder.
+ * Unpaired surrogates and unmappable characters are replaced like {@link String#getBytes} does,
+ * so encoding never fails.
+ */
+public class LineEncoder {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    // The longest encoding of a char, including a replaced surrogate which precedes it
+    private static final int MAX_BYTES_PER_CHAR = 4;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * The ByteSink interface receives the encoded bytes.
+     */
+    @FunctionalInterface
+    public interface ByteSink {
+        /**
+         * Writes {@code length} bytes of the buffer. The buffer is reused after this call.
+         */
+        void write(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private final ByteSink sink;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int size;
+    private char highSurrogate;
+    // Null for UTF-8, which is encoded inline
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+
+    public LineEncoder(ByteSink sink) {
+        this(sink, StandardCharsets.UTF_8);
+    }
+
+    public LineEncoder(ByteSink sink, Charset charset) {
+        this.sink = sink;
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            this.encoder = null;
+            this.chars = null;
+        } else {
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Appends the text to the current line.
+     */
+    public LineEncoder append(CharSequence text) throws IOException {
+        return append(text, 0, text.length());
+    }
+
+    /**
+     * Appends the characters of the text between {@code start} and {@code end} to the current line.
+     * A surrogate pair may be split between two calls.
+     */
+    public LineEncoder append(CharSequence text, int start, int end) throws IOException {
+        Objects.checkFromToIndex(start, end, text.length());
+        if (encoder != null) {
+            for (int i = start; i < end; i++) {
+                if (!chars.hasRemaining()) {
+                    encodeChars();
+                }
+                chars.put(text.charAt(i));
+            }
+            return this;
+        }
+        int i = start;
+        while (i < end) {
+            if (buffer.length - size < MAX_BYTES_PER_CHAR) {
+                flush();
+            }
+            if (highSurrogate == 0) {
+                int asciiEnd = Math.min(end, i + buffer.length - size);
+                char c;
+                while (i < asciiEnd && (c = text.charAt(i)) < 0x80) {
+                    buffer[size++] = (byte) c;
+                    i++;
+                }
+                if (i == end || buffer.length - size < MAX_BYTES_PER_CHAR) {
+                    continue;
+                }
+            }
+            encode(text.charAt(i++));
+        }
+        return this;
+    }
+
+    /**
+     * Terminates the current line with the line separator and passes the encoded bytes to the sink.
+     */
+    public void endLine() throws IOException {
+        append(LINE_SEPARATOR);
+        flush();
+    }
+
+    /**
+     * Passes the bytes encoded so far to the sink.
+     * A high surrogate at the end of the appended text stays pending until the next character arrives.
+     */
+    public void flush() throws IOException {
+        if (encoder != null) {
+            encodeChars();
+        }
+        if (size > 0) {
+            sink.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Encodes the appended characters into the buffer, passing it to the sink whenever it fills up.
+     * The encoder keeps a trailing high surrogate in the characters until its pair arrives.
+     */
+    private void encodeChars() throws IOException {
+        chars.flip();
+        while (true) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, size, buffer.length - size);
+            boolean overflow = encoder.encode(chars, bytes, false).isOverflow();
+            size = bytes.position();
+            if (!overflow) {
+                break;
+            }
+            sink.write(buffer, 0, size);
+            size = 0;
+        }
+        chars.compact();
+    }
+
+    private void encode(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[size++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[size++] = (byte) (0x80 | codePoint & 0x3F);
+                return;
+            }
+            buffer[size++] = '?';
+        }
+        if (c < 0x80) {
+            buffer[size++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[size++] = (byte) (0xC0 | c >> 6);
+            buffer[size++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[size++] = '?';
+        } else {
+            buffer[size++] = (byte) (0xE0 | c >> 12);
+            buffer[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[size++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+}
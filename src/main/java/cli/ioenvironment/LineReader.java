@@ -0,0 +1,186 @@
+package cli.ioenvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The LineReader class reads input in windows of bytes and splits it into lines terminated by '\n'.
+ * The windows are either blocks read from an input stream or buffers supplied by a WindowSource,
+ * for example parts of a memory-mapped file.
+ * Lines are decoded by a LineDecoder into a reusable char buffer,
+ * so callers which only inspect a line can get it as a CharSequence view without copying it into a String.
+ * Only lines which span two windows are copied before decoding.
+ * The charset must encode '\n' as a single byte which never occurs inside other characters, like UTF-8 does.
+ * Raw bytes can be read from the same reader, they continue right after the last line read.
+ */
+public class LineReader {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /**
+     * The WindowSource interface supplies the input of a LineReader as consecutive windows of bytes.
+     */
+    @FunctionalInterface
+    public interface WindowSource {
+        /**
+         * Returns the bytes following the previous window between the position and the limit of the buffer.
+         * The reader does not use the previous window after this call, so the buffer may be reused.
+         *
+         * @return the next window, or null if the end of the input has been reached.
+         */
+        ByteBuffer nextWindow() throws IOException;
+    }
+
+    private final InputStream inputStream;
+    private final WindowSource source;
+    private final LineDecoder decoder;
+
+    private ByteBuffer window = EMPTY;
+    private ByteBuffer inputBuffer;
+    private byte[] lineBuffer;
+    private ByteBuffer lineWindow;
+    private int lastLineByteCount;
+
+    public LineReader(InputStream inputStream, Charset charset) {
+        this.inputStream = inputStream;
+        this.source = this::readFromStream;
+        this.decoder = new LineDecoder(charset);
+    }
+
+    public LineReader(WindowSource source, Charset charset) {
+        this.inputStream = null;
+        this.source = source;
+        this.decoder = new LineDecoder(charset);
+    }
+
+    /**
+     * Reads the next line without its terminator.
+     * The returned view is only valid until the next call of any reading method.
+     *
+     * @return the line, or null if the end of the input has been reached.
+     */
+    public CharSequence readLineView() throws IOException {
+        int lineLength = 0;
+        while (true) {
+            if (!window.hasRemaining() && !nextWindow()) {
+                return lineLength == 0 ? null : decode(lineWindow, 0, lineLength);
+            }
+            int start = window.position();
+            int newline = indexOf(window, start, window.limit(), (byte) '\n');
+            if (newline >= 0 && lineLength == 0) {
+                window.position(newline + 1);
+                return decode(window, start, newline);
+            }
+            int end = newline >= 0 ? newline : window.limit();
+            lineLength = appendToLine(lineLength, start, end);
+            window.position(newline >= 0 ? newline + 1 : end);
+            if (newline >= 0) {
+                return decode(lineWindow, 0, lineLength);
+            }
+        }
+    }
+
+    /**
+     * Reads the next line without its terminator.
+     *
+     * @return the line, or null if the end of the input has been reached.
+     */
+    public String readLine() throws IOException {
+        CharSequence line = readLineView();
+        return line == null ? null : line.toString();
+    }
+
+    /**
+     * Returns the number of bytes the last line occupied in the input, excluding its terminator.
+     */
+    public int lastLineByteCount() {
+        return lastLineByteCount;
+    }
+
+    /**
+     * Reads and decodes the rest of the input.
+     */
+    public String readRemaining() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] chunk = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = read(chunk, 0, chunk.length)) != -1) {
+            content.write(chunk, 0, read);
+        }
+        return content.toString(decoder.charset());
+    }
+
+    /**
+     * Reads up to {@code length} raw bytes of the input.
+     *
+     * @return the number of bytes read, or -1 if the end of the input has been reached.
+     */
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!window.hasRemaining()) {
+            if (inputStream != null) {
+                return inputStream.read(buffer, offset, length);
+            }
+            if (!nextWindow()) {
+                return -1;
+            }
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    private boolean nextWindow() throws IOException {
+        ByteBuffer next;
+        while ((next = source.nextWindow()) != null) {
+            if (next.hasRemaining()) {
+                window = next;
+                return true;
+            }
+        }
+        window = EMPTY;
+        return false;
+    }
+
+    private ByteBuffer readFromStream() throws IOException {
+        if (inputBuffer == null) {
+            inputBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        int read = inputStream.read(inputBuffer.array(), 0, inputBuffer.capacity());
+        if (read == -1) {
+            return null;
+        }
+        return inputBuffer.clear().limit(read);
+    }
+
+    private CharSequence decode(ByteBuffer bytes, int start, int end) throws IOException {
+        lastLineByteCount = end - start;
+        return decoder.decode(bytes, start, end);
+    }
+
+    private int appendToLine(int lineLength, int start, int end) {
+        int count = end - start;
+        if (lineBuffer == null || lineLength + count > lineBuffer.length) {
+            int capacity = lineBuffer == null ? Math.max(BUFFER_SIZE, count) : Math.max(lineBuffer.length * 2, lineLength + count);
+            lineBuffer = lineBuffer == null ? new byte[capacity] : Arrays.copyOf(lineBuffer, capacity);
+            lineWindow = ByteBuffer.wrap(lineBuffer);
+        }
+        window.get(start, lineBuffer, lineLength, count);
+        return lineLength + count;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,24 @@
+package cli.ioenvironment;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * The StandardStreams class holds the streams of the standard file descriptors of the process.
+ * Unlike {@link System#in}, {@link System#out} and {@link System#err}, they can not be replaced,
+ * so a stream which is one of them is known to be the terminal (or whatever the interpreter was started with),
+ * and its file descriptor can be used directly, for example inherited by external processes.
+ * A stream installed with {@link System#setOut} is never mistaken for the standard output.
+ */
+public final class StandardStreams {
+    public static final InputStream INPUT = new FileInputStream(FileDescriptor.in);
+    public static final PrintStream OUTPUT = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    public static final PrintStream ERROR = new PrintStream(new FileOutputStream(FileDescriptor.err), true);
+
+    private StandardStreams() {
+    }
+}
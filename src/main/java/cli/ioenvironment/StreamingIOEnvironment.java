@@ -0,0 +1,111 @@
+package cli.ioenvironment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * The StreamingIOEnvironment interface extends IOEnvironment with byte-oriented access to the streams,
+ * so commands can process their input chunk by chunk instead of materializing it as a String.
+ */
+public interface StreamingIOEnvironment extends IOEnvironment {
+    /**
+     * Reads up to {@code length} bytes of the input into the buffer.
+     *
+     * @return the number of bytes read, or -1 if the end of the input has been reached.
+     */
+    int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Writes {@code length} bytes of the buffer to the output.
+     */
+    void writeOutput(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Returns the charset the text of the streams is decoded and encoded with.
+     * Commands reading files as text use it too, so files and streams are treated alike.
+     */
+    Charset charset();
+
+    /**
+     * Passes the output written so far to the underlying stream.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Reads bytes of the input into the remaining space of the buffer.
+     *
+     * @return the number of bytes read, or -1 if the end of the input has been reached.
+     */
+    default int read(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            int read = read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (read > 0) {
+                buffer.position(buffer.position() + read);
+            }
+            return read;
+        }
+        byte[] chunk = new byte[buffer.remaining()];
+        int read = read(chunk, 0, chunk.length);
+        if (read > 0) {
+            buffer.put(chunk, 0, read);
+        }
+        return read;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the output.
+     */
+    default void writeOutput(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            writeOutput(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        byte[] chunk = new byte[Math.min(buffer.remaining(), 64 * 1024)];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            writeOutput(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Writes the content of the file channel from its current position to the end to the output.
+     *
+     * @return the number of bytes written.
+     */
+    default long transferFrom(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long transferred = 0;
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            transferred += buffer.remaining();
+            writeOutput(buffer);
+            buffer.clear();
+        }
+        return transferred;
+    }
+
+    /**
+     * Passes the lines of the input to the handler one by one until the input ends or the handler stops.
+     *
+     * @param handler consumer of the lines, returns false to stop reading.
+     * @return true if the whole input was read, false if the handler stopped.
+     */
+    default boolean forEachLine(LineHandler handler) throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (!handler.handle(line)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    interface LineHandler {
+        boolean handle(String line) throws IOException;
+    }
+}
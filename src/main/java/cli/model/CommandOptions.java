@@ -1,11 +1,25 @@
 package cli.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 public class CommandOptions {
     private final Map<String, List<String>> options;
+    private final List<Occurrence> occurrences = new ArrayList<>();
+
+    /**
+     * One occurrence of an option on the command line.
+     *
+     * @param key           the name of the option.
+     * @param value         the value given with '=' ({@code -A=2}), or null.
+     * @param argumentIndex the index of the positional argument which directly follows the option
+     *                      ({@code -A 2}), or -1 if the option is followed by another option or nothing.
+     */
+    public record Occurrence(String key, String value, int argumentIndex) {
+    }
 
     public CommandOptions() {
         this.options = new TreeMap<>();
@@ -35,6 +49,22 @@ public class CommandOptions {
         this.options.put(key, values);
     }
 
+    /**
+     * Records an occurrence of an option, so commands whose options take values
+     * can bind every occurrence to the argument which follows it.
+     */
+    public void addOccurrence(Occurrence occurrence) {
+        this.occurrences.add(occurrence);
+    }
+
+    /**
+     * Returns the occurrences of all options in the order they were given.
+     * The list is empty if the options were not parsed from a command line.
+     */
+    public List<Occurrence> getOccurrences() {
+        return Collections.unmodifiableList(this.occurrences);
+    }
+
     public boolean isEmpty() {
         return this.options.isEmpty();
     }
@@ -28,7 +28,9 @@ import cli.model.Token;
  * case).
  * - Other tokens are treated as arguments.
  * 3. Command options are stored in a CommandOptions object, where each option
- * can have multiple values.
+ * can have multiple values. Every occurrence of an option is also recorded in order,
+ * with the index of the argument which directly follows it, so a command can take
+ * that argument as the value of the option (e.g., `-A 2`).
  * 4. Variables within the arguments (denoted by '$') are expanded based on the
  * environment.
  * 5. A list of Command objects, each containing the command name, arguments,
@@ -71,12 +73,21 @@ public class ParserImpl implements Parser {
 
             List<String> args = new ArrayList<>();
             CommandOptions options = new CommandOptions();
+            // The last flag of the previous short flag group without a value, it may be followed by its value
+            String pendingFlag = null;
 
             for (int i = 1; i < tokens.size(); i++) {
                 String token = expandVariables(tokens.get(i));
 
+                if (pendingFlag != null) {
+                    boolean argument = !token.startsWith("-") && !token.contains("=") || token.equals("-");
+                    options.addOccurrence(new CommandOptions.Occurrence(pendingFlag, null, argument ? args.size() : -1));
+                    pendingFlag = null;
+                }
+
                 if (token.startsWith("--")) {
                     String[] parts = token.substring(2).split("=", 2);
+                    options.addOccurrence(new CommandOptions.Occurrence(parts[0], parts.length == 2 ? parts[1] : null, -1));
 
                     if (options.getAllOptionValues(parts[0]) == null) {
                         options.setOptionValues(parts[0], new ArrayList<>());
@@ -97,6 +108,12 @@ public class ParserImpl implements Parser {
                         if (options.getAllOptionValues(flag) == null) {
                             options.setOptionValues(flag, new ArrayList<>());
                         }
+                        boolean last = j == parts[0].length() - 1;
+                        if (last && parts.length == 1) {
+                            pendingFlag = flag;
+                        } else {
+                            options.addOccurrence(new CommandOptions.Occurrence(flag, last ? parts[1] : null, -1));
+                        }
                     }
 
                     if (parts.length == 2) {
@@ -109,6 +126,9 @@ public class ParserImpl implements Parser {
                 }
 
             }
+            if (pendingFlag != null) {
+                options.addOccurrence(new CommandOptions.Occurrence(pendingFlag, null, -1));
+            }
 
             commands.add(new Command(name, args, options));
         }
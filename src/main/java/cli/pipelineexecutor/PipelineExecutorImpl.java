@@ -1,34 +1,51 @@
 package cli.pipelineexecutor;
 
+import cli.exceptions.ExitCommandException;
 import cli.exceptions.TerminalErrorException;
 import cli.model.*;
 import cli.commandexecutor.CommandExecutor;
+import cli.commandexecutor.ExternalCommandExecutor;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 /**
  * The PipelineExecutorImpl class implements the PipelineExecutor interface.
  * It is responsible for executing a sequence of commands, connecting their inputs and outputs,
- * and managing the execution process using a thread pool.
+ * and managing the execution process using a scheduler shared by all pipelines of the session.
+ * By default the scheduler starts a virtual thread for every command.
  */
-public class PipelineExecutorImpl implements PipelineExecutor {
+public class PipelineExecutorImpl implements PipelineExecutor, AutoCloseable {
     private final CommandExecutor commandExecutor;
+    private final ExecutorService scheduler;
+    private final int pipeCapacity;
 
     public PipelineExecutorImpl(CommandExecutor commandExecutor) {
+        this(commandExecutor, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public PipelineExecutorImpl(CommandExecutor commandExecutor, ExecutorService scheduler) {
+        this(commandExecutor, scheduler, RingBufferPipe.DEFAULT_CAPACITY);
+    }
+
+    public PipelineExecutorImpl(CommandExecutor commandExecutor, ExecutorService scheduler, int pipeCapacity) {
         this.commandExecutor = commandExecutor;
+        this.scheduler = scheduler;
+        this.pipeCapacity = pipeCapacity;
     }
 
     /**
      * Executes a pipeline of commands.
-     * The method iterates over each command in the pipeline, executing them sequentially
-     * while connecting their inputs and outputs using piped streams.
-     * It utilizes a thread pool to manage the execution of commands concurrently.
+     * The method iterates over each stage of the pipeline, executing them sequentially
+     * while connecting their inputs and outputs using ring buffer pipes.
+     * A stage is either a single command or a run of consecutive external commands,
+     * which are connected with each other by operating system pipes.
+     * Every stage runs in its own task of the scheduler, the thread is named after its commands.
+     * A pipeline of a single stage is executed directly on the calling thread.
      *
      * @param parsedInput The parsed input representing the pipeline of commands.
      * @param firstInput  The initial input stream for the pipeline.
@@ -37,44 +54,128 @@ public class PipelineExecutorImpl implements PipelineExecutor {
      */
     @Override
     public void execute(ParsedInput parsedInput, InputStream firstInput, OutputStream lastOutput, OutputStream errorStream) throws Exception {
-        List<Command> commands = parsedInput.commands();
-        if (commands.isEmpty()) {
+        List<List<Command>> stages = splitIntoStages(parsedInput.commands());
+        if (stages.isEmpty()) {
             return;
         }
-        try (ExecutorService executor = Executors.newFixedThreadPool(commands.size())) {
-            InputStream input = firstInput;
-            List<Future<Integer>> futures = new ArrayList<>();
-
-            for (int i = 0; i < commands.size(); i++) {
-                Command command = commands.get(i);
-
-                boolean isLastCommand = (i == commands.size() - 1);
-                PipedOutputStream pipedOutputStream = !isLastCommand ? new PipedOutputStream() : null;
-                OutputStream currentOutput = !isLastCommand ? pipedOutputStream : lastOutput;
-                InputStream nextInput = !isLastCommand ? new PipedInputStream(pipedOutputStream) : null;
-
-                InputStream currentInput = input;
-                futures.add(executor.submit(() -> {
-                    try {
-                        int result = commandExecutor.execute(command, currentInput, currentOutput, errorStream);
-                        if (!isLastCommand) {
-                            currentOutput.close(); // Important to close the pipe to signal EOF
-                        }
-                        return result;
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }));
+        if (stages.size() == 1) {
+            executeInline(stages.getFirst(), firstInput, lastOutput, errorStream);
+            return;
+        }
+        InputStream input = firstInput;
+        List<Future<Integer>> futures = new ArrayList<>();
+        List<RingBufferPipe> pipes = new ArrayList<>();
+
+        for (int i = 0; i < stages.size(); i++) {
+            List<Command> stage = stages.get(i);
+
+            boolean isLastStage = (i == stages.size() - 1);
+            RingBufferPipe pipe = !isLastStage ? new RingBufferPipe(pipeCapacity) : null;
+            OutputStream currentOutput = !isLastStage ? pipe.sink() : lastOutput;
+            InputStream nextInput = !isLastStage ? pipe.source() : null;
+            pipes.add(pipe);
 
-                if (!isLastCommand) {
-                    input = nextInput;
+            InputStream currentInput = input;
+            futures.add(scheduler.submit(() -> {
+                Thread thread = Thread.currentThread();
+                String threadName = thread.getName();
+                thread.setName(stageName(stage));
+                try {
+                    return executeStage(stage, currentInput, currentOutput, errorStream);
+                } finally {
+                    if (!isLastStage) {
+                        currentOutput.close(); // Important to close the pipe to signal EOF
+                    }
+                    if (currentInput != firstInput) {
+                        currentInput.close(); // Stop the previous stage if it is still writing
+                    }
+                    thread.setName(threadName);
                 }
+            }));
+
+            if (!isLastStage) {
+                input = nextInput;
+            }
+        }
+        awaitResults(futures, pipes);
+    }
+
+    /**
+     * Groups consecutive external commands into a single stage, every other command is a stage of its own.
+     * Only an ExternalCommandExecutor has external commands.
+     */
+    private List<List<Command>> splitIntoStages(List<Command> commands) {
+        List<List<Command>> stages = new ArrayList<>();
+        List<Command> externalRun = new ArrayList<>();
+        for (Command command : commands) {
+            if (commandExecutor instanceof ExternalCommandExecutor external && external.isExternal(command)) {
+                externalRun.add(command);
+                continue;
+            }
+            if (!externalRun.isEmpty()) {
+                stages.add(externalRun);
+                externalRun = new ArrayList<>();
             }
-            for (Future<Integer> future : futures) {
-                if (future.get() != 0) {
-                    throw new TerminalErrorException();
+            stages.add(List.of(command));
+        }
+        if (!externalRun.isEmpty()) {
+            stages.add(externalRun);
+        }
+        return stages;
+    }
+
+    private String stageName(List<Command> stage) {
+        return stage.stream().map(Command::name).collect(Collectors.joining(" | "));
+    }
+
+    private int executeStage(List<Command> stage, InputStream input, OutputStream output, OutputStream errorStream) {
+        if (stage.size() == 1) {
+            return commandExecutor.execute(stage.getFirst(), input, output, errorStream);
+        }
+        return ((ExternalCommandExecutor) commandExecutor).executeExternalPipeline(stage, input, output, errorStream);
+    }
+
+    /**
+     * Executes a pipeline of a single stage directly on the calling thread,
+     * without scheduling a task or creating pipes.
+     */
+    private void executeInline(List<Command> stage, InputStream input, OutputStream output, OutputStream errorStream) {
+        if (executeStage(stage, input, output, errorStream) != 0) {
+            throw new TerminalErrorException();
+        }
+    }
+
+    /**
+     * Waits for all stages of the pipeline, so no stage outlives the line it was started for.
+     * A stage that failed because the next stage had stopped reading its output is not considered failed,
+     * like a process killed by SIGPIPE.
+     */
+    private void awaitResults(List<Future<Integer>> futures, List<RingBufferPipe> pipes) throws Exception {
+        Exception failure = null;
+        boolean success = true;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                RingBufferPipe output = pipes.get(i);
+                success &= futures.get(i).get() == 0 || (output != null && output.isBroken());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof ExitCommandException exit ? exit : e;
                 }
             }
         }
+        if (failure != null) {
+            throw failure;
+        }
+        if (!success) {
+            throw new TerminalErrorException();
+        }
+    }
+
+    /**
+     * Shuts the scheduler down, waiting for the running commands to finish.
+     */
+    @Override
+    public void close() {
+        scheduler.close();
     }
 }
@@ -0,0 +1,234 @@
+package cli.pipelineexecutor;
+
+import cli.exceptions.BrokenPipeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The RingBufferPipe class connects the output of one pipeline stage with the input of the next one.
+ * Data is kept in a fixed-size circular buffer and is copied in bulk, so a writer and a reader running
+ * in different threads can exchange large amounts of data without per-byte synchronization.
+ * A reader blocks until data is available or the writer closes its end (EOF),
+ * a writer blocks until there is free space or the reader closes its end,
+ * in the latter case the write fails with {@link BrokenPipeException}.
+ */
+public class RingBufferPipe {
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final byte[] buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final InputStream source = new Source();
+    private final OutputStream sink = new Sink();
+
+    private int readPosition;
+    private int size;
+    private boolean writerClosed;
+    private boolean readerClosed;
+    private boolean broken;
+
+    public RingBufferPipe() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBufferPipe(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pipe capacity must be positive: " + capacity);
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Returns the read end of the pipe. Closing it signals the writer that nobody reads the data anymore.
+     *
+     * @return input stream of the pipe.
+     */
+    public InputStream source() {
+        return source;
+    }
+
+    /**
+     * Returns the write end of the pipe. Closing it signals EOF to the reader.
+     *
+     * @return output stream of the pipe.
+     */
+    public OutputStream sink() {
+        return sink;
+    }
+
+    /**
+     * Checks whether the read end of the pipe was closed.
+     *
+     * @return true if the reader does not accept data anymore.
+     */
+    public boolean isReaderClosed() {
+        lock.lock();
+        try {
+            return readerClosed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a write failed because the reader had closed the pipe before the writer finished.
+     *
+     * @return true if the writer was stopped by the reader.
+     */
+    public boolean isBroken() {
+        lock.lock();
+        try {
+            return broken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(byte[] destination, int offset, int length) throws IOException {
+        lock.lock();
+        try {
+            while (size == 0 && !writerClosed && !readerClosed) {
+                notEmpty.await();
+            }
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            if (size == 0) {
+                return -1;
+            }
+            int count = Math.min(length, size);
+            int firstPart = Math.min(count, buffer.length - readPosition);
+            System.arraycopy(buffer, readPosition, destination, offset, firstPart);
+            System.arraycopy(buffer, 0, destination, offset + firstPart, count - firstPart);
+            readPosition = (readPosition + count) % buffer.length;
+            size -= count;
+            notFull.signal();
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading from pipe");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(byte[] source, int offset, int length) throws IOException {
+        lock.lock();
+        try {
+            while (length > 0) {
+                while (size == buffer.length && !readerClosed && !writerClosed) {
+                    notFull.await();
+                }
+                if (writerClosed) {
+                    throw new IOException("Pipe closed");
+                }
+                if (readerClosed) {
+                    broken = true;
+                    throw new BrokenPipeException();
+                }
+                int writePosition = (readPosition + size) % buffer.length;
+                int count = Math.min(length, buffer.length - size);
+                int firstPart = Math.min(count, buffer.length - writePosition);
+                System.arraycopy(source, offset, buffer, writePosition, firstPart);
+                System.arraycopy(source, offset + firstPart, buffer, 0, count - firstPart);
+                size += count;
+                offset += count;
+                length -= count;
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing to pipe");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int available() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeWriter() {
+        lock.lock();
+        try {
+            writerClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+            size = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class Source extends InputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            return RingBufferPipe.this.read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destination, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, destination.length);
+            if (length == 0) {
+                return 0;
+            }
+            return RingBufferPipe.this.read(destination, offset, length);
+        }
+
+        @Override
+        public int available() {
+            return RingBufferPipe.this.available();
+        }
+
+        @Override
+        public void close() {
+            closeReader();
+        }
+    }
+
+    private class Sink extends OutputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            RingBufferPipe.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, source.length);
+            RingBufferPipe.this.write(source, offset, length);
+        }
+
+        @Override
+        public void close() {
+            closeWriter();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package cli.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fixtures and timing shared by the benchmarks.
+ * Benchmarks are tests tagged {@value #TAG}, they are excluded from {@code ./gradlew test}
+ * and run with {@code ./gradlew benchmark}.
+ * They print their measurements and check only that the measured code produced correct results:
+ * timings depend on the machine and its load, so they are reported, never asserted.
+ */
+public final class Benchmarks {
+    public static final String TAG = "benchmark";
+
+    /**
+     * A typical line of a service log.
+     */
+    public static final String LOG_LINE = "2024-01-01 12:00:00 INFO request handled in 12 ms\n";
+
+    /**
+     * A rare line of the log, every line containing "ERROR" or "timeout" in the log files is this one.
+     */
+    public static final String ERROR_LINE = "2024-01-01 12:00:01 ERROR request failed: timeout\n";
+
+    @FunctionalInterface
+    public interface Run {
+        void run() throws Exception;
+    }
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Creates a temporary log file of at least {@code size} bytes made of {@link #LOG_LINE},
+     * where every {@code errorPeriod}-th line is {@link #ERROR_LINE}.
+     *
+     * @param errorPeriod the distance between the error lines, or 0 if there are none.
+     * @return the file, to be deleted by the caller.
+     */
+    public static Path createLogFile(long size, int errorPeriod) throws IOException {
+        Path file = Files.createTempFile("benchmark", ".log");
+        byte[] block = (errorPeriod > 0 ? LOG_LINE.repeat(errorPeriod - 1) + ERROR_LINE : LOG_LINE.repeat(1000)).getBytes();
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                output.write(block);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Runs the code {@code runs} times.
+     *
+     * @return the time of the fastest run in seconds.
+     */
+    public static double bestSeconds(int runs, Run run) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e9);
+        }
+        return best;
+    }
+
+    /**
+     * Prints a line of the measurements.
+     */
+    public static void report(String format, Object... args) {
+        System.out.printf(format + "%n", args);
+    }
+
+    /**
+     * @return the throughput in MiB per second.
+     */
+    public static double mibPerSecond(long bytes, double seconds) {
+        return bytes / seconds / (1024 * 1024);
+    }
+}
@@ -1,14 +1,21 @@
 package cli.commandexecutor;
 
 import cli.environment.EnvironmentImpl;
+import cli.exceptions.BrokenPipeException;
 import cli.model.Command;
+import cli.ioenvironment.StandardStreams;
 import cli.model.CommandOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,4 +54,168 @@ class CommandExecutorImplTest {
         assertEquals(LocalDate.now().toString() + System.lineSeparator(), output.toString());
         assertTrue(error.toString().isEmpty());
     }
+
+    @Test
+    void testIsExternal() {
+        assertFalse(executor.isExternal(new Command("echo", List.of(), new CommandOptions())));
+        assertTrue(executor.isExternal(new Command("sort", List.of(), new CommandOptions())));
+    }
+
+    @Test
+    void testExecuteExternalPipeline() {
+        List<Command> commands = List.of(
+                new Command("sort", List.of(), new CommandOptions()),
+                new Command("uniq", List.of(), new CommandOptions())
+        );
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.executeExternalPipeline(commands,
+                new ByteArrayInputStream("b\na\nb\na\nc\n".getBytes()), output, error);
+        assertEquals(0, exitCode);
+        assertEquals("a\nb\nc\n", output.toString());
+        assertTrue(error.toString().isEmpty());
+    }
+
+    @Test
+    void testExecuteExternalPipelineFailure() {
+        List<Command> commands = List.of(
+                new Command("sort", List.of(), new CommandOptions()),
+                new Command("false", List.of(), new CommandOptions())
+        );
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.executeExternalPipeline(commands, InputStream.nullInputStream(), output, error);
+        assertNotEquals(0, exitCode);
+    }
+
+    @Test
+    void testExternalPipelineStatusIsStatusOfLastCommand() {
+        List<Command> commands = List.of(
+                new Command("false", List.of(), new CommandOptions()),
+                new Command("sort", List.of(), new CommandOptions())
+        );
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.executeExternalPipeline(commands, InputStream.nullInputStream(), output, error);
+        assertEquals(0, exitCode);
+    }
+
+    @Test
+    void testUpstreamKilledBySigpipeDoesNotFailPipeline() {
+        // yes is killed by SIGPIPE (status 141) once head exits
+        List<Command> commands = List.of(
+                new Command("yes", List.of(), new CommandOptions()),
+                new Command("head", List.of("-n", "3"), new CommandOptions())
+        );
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.executeExternalPipeline(commands, InputStream.nullInputStream(), output, error);
+        assertEquals(0, exitCode);
+        assertEquals("y\ny\ny\n", output.toString());
+    }
+
+    @Test
+    void testExecuteExternalSeparatesErrorStream() {
+        Command command = new Command("sh", List.of("-c", "echo out; echo err >&2"), new CommandOptions());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.execute(command, InputStream.nullInputStream(), output, error);
+        assertEquals(0, exitCode);
+        assertEquals("out\n", output.toString());
+        assertEquals("err\n", error.toString());
+    }
+
+    @Test
+    void testExecuteExternalStreamsInputAndOutputConcurrently() {
+        // cat writes its output before it reads all the input, more than any OS pipe buffer can hold
+        byte[] data = new byte[8 * 1024 * 1024];
+        Arrays.fill(data, (byte) 'x');
+        Command command = new Command("cat", List.of(), new CommandOptions());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.executeExternalPipeline(List.of(command), new ByteArrayInputStream(data), output, error);
+        assertEquals(0, exitCode);
+        assertEquals(data.length, output.size());
+    }
+
+    @Test
+    void testTerminalStreamsAreInherited() {
+        List<ProcessBuilder> processBuilders = List.of(new ProcessBuilder("sort"), new ProcessBuilder("uniq"));
+
+        executor.redirectTerminalStreams(processBuilders, StandardStreams.INPUT, StandardStreams.OUTPUT, StandardStreams.ERROR);
+
+        assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilders.getFirst().redirectInput());
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getFirst().redirectOutput());
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getLast().redirectInput());
+        assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilders.getLast().redirectOutput());
+        for (ProcessBuilder processBuilder : processBuilders) {
+            assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectError());
+        }
+    }
+
+    @Test
+    void testNonTerminalStreamsAreNotInherited() {
+        List<ProcessBuilder> processBuilders = List.of(new ProcessBuilder("sort"));
+
+        executor.redirectTerminalStreams(processBuilders, InputStream.nullInputStream(),
+                new ByteArrayOutputStream(), new ByteArrayOutputStream());
+
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getFirst().redirectInput());
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getFirst().redirectOutput());
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getFirst().redirectError());
+    }
+
+    @Test
+    void testReplacedStandardStreamsAreNotInherited() {
+        List<ProcessBuilder> processBuilders = List.of(new ProcessBuilder("sort"));
+        PrintStream standardOutput = System.out;
+        try {
+            System.setOut(new PrintStream(new ByteArrayOutputStream()));
+            executor.redirectTerminalStreams(processBuilders, System.in, System.out, System.err);
+        } finally {
+            System.setOut(standardOutput);
+        }
+
+        assertEquals(ProcessBuilder.Redirect.PIPE, processBuilders.getFirst().redirectOutput());
+    }
+
+    @Test
+    void testExecuteExternalWithTerminalStreams() {
+        Command command = new Command("sh", List.of("-c", "exit 3"), new CommandOptions());
+
+        int exitCode = executor.execute(command, StandardStreams.INPUT, StandardStreams.OUTPUT, StandardStreams.ERROR);
+        assertEquals(3, exitCode);
+    }
+
+    @Test
+    void testExternalProcessIsDestroyedOnBrokenPipe() {
+        Command command = new Command("yes", List.of(), new CommandOptions());
+        OutputStream output = new OutputStream() {
+            private long written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 1024 * 1024) {
+                    throw new BrokenPipeException();
+                }
+            }
+        };
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        int exitCode = executor.execute(command, InputStream.nullInputStream(), output, error);
+        assertNotEquals(0, exitCode);
+        assertTrue(error.toString().isEmpty());
+    }
 }
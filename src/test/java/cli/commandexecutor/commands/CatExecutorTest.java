@@ -1,5 +1,6 @@
 package cli.commandexecutor.commands;
 
+import cli.ioenvironment.FlushPolicy;
 import cli.ioenvironment.IOEnvironment;
 import cli.ioenvironment.IOEnvironmentImpl;
 import cli.model.CommandOptions;
@@ -10,9 +11,11 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Random;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,4 +90,68 @@ class CatExecutorTest {
         assertEquals(0, result);
         assertEquals("Get files' content\n", outputStream.toString());
     }
+
+    @Test
+    void testExecuteWithBinaryInput() {
+        byte[] data = new byte[256 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream(data), outputStream, errorStream);
+        int result = catExecutor.execute(Collections.emptyList(), new CommandOptions(), ioEnvironment);
+        assertEquals(0, result);
+        assertArrayEquals(data, outputStream.toByteArray());
+    }
+
+    @Test
+    void testExecuteLargeBinaryFile() throws IOException {
+        byte[] data = new byte[1024 * 1024 + 7];
+        new Random(42).nextBytes(data);
+        Files.write(testFile, data);
+        int result = catExecutor.execute(List.of(testFile.toString(), testFile.toString()), new CommandOptions(), ioEnvironment);
+        assertEquals(0, result);
+        byte[] output = outputStream.toByteArray();
+        assertEquals(2 * data.length, output.length);
+        assertArrayEquals(data, Arrays.copyOfRange(output, 0, data.length));
+        assertArrayEquals(data, Arrays.copyOfRange(output, data.length, output.length));
+    }
+
+    @Test
+    void testExecuteToFileOutput() throws IOException {
+        Files.writeString(testFile, "first\n");
+        Path secondFile = Files.createTempFile("testFile", ".txt");
+        Files.writeString(secondFile, "second\n");
+        Path outputFile = Files.createTempFile("output", ".txt");
+        try (FileOutputStream fileOutput = new FileOutputStream(outputFile.toFile())) {
+            ioEnvironment = new IOEnvironmentImpl(System.in, fileOutput, errorStream, FlushPolicy.BLOCK);
+            ioEnvironment.writeOutput("header\n");
+            int result = catExecutor.execute(List.of(testFile.toString(), secondFile.toString()), new CommandOptions(), ioEnvironment);
+            assertEquals(0, result);
+        }
+        assertEquals("header\nfirst\nsecond\n", Files.readString(outputFile));
+    }
+
+    @Test
+    void testExecuteToReplacedStandardOutput() throws IOException {
+        Files.writeString(testFile, "captured\n");
+        PrintStream standardOutput = System.out;
+        try {
+            System.setOut(new PrintStream(outputStream, true));
+            ioEnvironment = new IOEnvironmentImpl(System.in, System.out, errorStream);
+            int result = catExecutor.execute(List.of(testFile.toString()), new CommandOptions(), ioEnvironment);
+            assertEquals(0, result);
+        } finally {
+            System.setOut(standardOutput);
+        }
+        assertEquals("captured\n", outputStream.toString());
+    }
+
+    @Test
+    void testFilesBeforeMissingOneAreEmitted() throws IOException {
+        Files.writeString(testFile, "content");
+        int result = catExecutor.execute(List.of(testFile.toString(), "nonexistent.txt"), new CommandOptions(), ioEnvironment);
+        assertEquals(1, result);
+        assertEquals("content", outputStream.toString());
+        assertEquals("cat: cannot read file nonexistent.txt" + System.lineSeparator(), errorStream.toString());
+    }
 }
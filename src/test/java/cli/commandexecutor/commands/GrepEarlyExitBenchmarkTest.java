@@ -0,0 +1,64 @@
+package cli.commandexecutor.commands;
+
+import cli.benchmark.Benchmarks;
+import cli.ioenvironment.IOEnvironmentImpl;
+import cli.model.CommandOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the existence check {@code grep -q} and the count {@code grep -c} with printing all the matches
+ * in a large log where the pattern occurs in every hundredth line.
+ */
+@Tag(Benchmarks.TAG)
+class GrepEarlyExitBenchmarkTest {
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final int RUNS = 3;
+    private static final String PATTERN = "ERROR";
+
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Benchmarks.createLogFile(FILE_SIZE, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private double bestSeconds(String flag) throws Exception {
+        Map<String, List<String>> options = new HashMap<>();
+        if (flag != null) {
+            options.put(flag, null);
+        }
+        return Benchmarks.bestSeconds(RUNS, () -> {
+            int result = new GrepExecutor().execute(List.of(PATTERN, testFile.toString()), new CommandOptions(options),
+                    new IOEnvironmentImpl(InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream()));
+            assertEquals(0, result);
+        });
+    }
+
+    @Test
+    void testEarlyExit() throws Exception {
+        double all = bestSeconds(null);
+        double count = bestSeconds("c");
+        double quiet = bestSeconds("q");
+        Benchmarks.report("grep %s on %d MiB: all lines %.3f s, -c %.3f s, -q %.6f s",
+                PATTERN, FILE_SIZE / (1024 * 1024), all, count, quiet);
+    }
+}
@@ -1,19 +1,36 @@
 package cli.commandexecutor.commands;
 
+import cli.commandexecutor.grep.GrepPatternCache;
+import cli.environment.EnvironmentImpl;
+import cli.ioenvironment.FlushPolicy;
 import cli.ioenvironment.IOEnvironment;
 import cli.ioenvironment.IOEnvironmentImpl;
+import cli.model.Command;
 import cli.model.CommandOptions;
+import cli.parser.ParserImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -311,4 +328,419 @@ class GrepExecutorTest {
         assertEquals(0, result);
         assertEquals("и\n и \nи \n и\n и мир\nмир и\n", outputStream.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStdinWithCyrillic() {
+        ioEnvironment = new IOEnvironmentImpl(
+                new ByteArrayInputStream("мир\nпривет мир\nпока\n".getBytes(StandardCharsets.UTF_8)),
+                outputStream, errorStream);
+
+        int result = grepExecutor.execute(
+                List.of("мир"),
+                new CommandOptions(),
+                ioEnvironment
+        );
+
+        assertEquals(0, result);
+        assertEquals("мир\nпривет мир\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFileInCharsetOfEnvironment() throws IOException {
+        Charset charset = Charset.forName("windows-1251");
+        Files.writeString(testFile, "мир\nпривет мир\nпока\n", charset);
+        ioEnvironment = new IOEnvironmentImpl(InputStream.nullInputStream(), outputStream, errorStream,
+                FlushPolicy.ALWAYS, charset);
+
+        int result = grepExecutor.execute(
+                List.of("мир", testFile.toString()),
+                new CommandOptions(),
+                ioEnvironment
+        );
+
+        assertEquals(0, result);
+        assertEquals("мир\nпривет мир\n", outputStream.toString(charset));
+    }
+
+    @Test
+    void testBeforeContextOption() throws IOException {
+        Files.writeString(testFile, "line1\nline2\nline3\nmatch1\nline4\nmatch2\nline5", StandardOpenOption.WRITE);
+
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("B", null);
+
+        int result = grepExecutor.execute(
+                List.of("2", "match", testFile.toString()),
+                new CommandOptions(options),
+                ioEnvironment
+        );
+
+        assertEquals(0, result);
+        assertEquals("line2\nline3\nmatch1\nline4\nmatch2\n", outputStream.toString());
+    }
+
+    @Test
+    void testContextOptionValues() throws IOException {
+        Files.writeString(testFile, "a\nb\nmatch\nc\nd\n", StandardOpenOption.WRITE);
+
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("A", List.of("1"));
+        options.put("B", List.of("1"));
+
+        int result = grepExecutor.execute(
+                List.of("match", testFile.toString()),
+                new CommandOptions(options),
+                ioEnvironment
+        );
+
+        assertEquals(0, result);
+        assertEquals("b\nmatch\nc\n", outputStream.toString());
+    }
+
+    @Test
+    void testInvalidPattern() {
+        int result = grepExecutor.execute(
+                List.of("(unclosed"),
+                new CommandOptions(),
+                ioEnvironment
+        );
+
+        assertEquals(1, result);
+        assertTrue(errorStream.toString().startsWith("grep: invalid pattern"));
+    }
+
+    @Test
+    void testMatchesArePrintedBeforeInputEnds() throws Exception {
+        PipedOutputStream producer = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(producer);
+        ioEnvironment = new IOEnvironmentImpl(input, outputStream, errorStream);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Integer> result = executor.submit(() ->
+                    grepExecutor.execute(List.of("match"), new CommandOptions(), ioEnvironment));
+            producer.write("skip\nmatch 1\n".getBytes());
+            producer.flush();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (outputStream.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("match 1\n", outputStream.toString());
+            producer.write("match 2\n".getBytes());
+            producer.close();
+            int status = result.get();
+            assertEquals(0, status);
+        }
+        assertEquals("match 1\nmatch 2\n", outputStream.toString());
+    }
+
+    @Test
+    void testFixedStringsWithColor() throws IOException {
+        Files.writeString(testFile, "price: $1.50 or $1x50\nfree\n", StandardOpenOption.WRITE);
+
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("F", null);
+        options.put("color", null);
+
+        int result = grepExecutor.execute(
+                List.of("$1.5", testFile.toString()),
+                new CommandOptions(options),
+                ioEnvironment
+        );
+
+        assertEquals(0, result);
+        assertEquals("price: \u001B[31m$1.5\u001B[0m0 or $1x50\n", outputStream.toString());
+    }
+
+    @Test
+    void testParallelSearchKeepsFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i % 7 == 0 ? "error " : "info ").append(i).append('\n');
+        }
+        Files.writeString(testFile, content);
+        CommandOptions options = new CommandOptions(new HashMap<>(Map.of("A", List.of("1"))));
+        grepExecutor.execute(List.of("err.r", testFile.toString()), options, ioEnvironment);
+        String sequentialOutput = outputStream.toString();
+
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (long chunkSize : new long[]{1, 100, 4096}) {
+                outputStream.reset();
+                int result = new GrepExecutor(pool, 0, chunkSize).execute(List.of("err.r", testFile.toString()), options, ioEnvironment);
+                assertEquals(0, result);
+                assertEquals(sequentialOutput, outputStream.toString(), "chunk " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void testSeveralFilesArePrefixedWithNames() throws IOException {
+        Path secondFile = Files.createTempFile("testFile", ".txt");
+        try {
+            Files.writeString(testFile, "apple\nbanana\n");
+            Files.writeString(secondFile, "cherry\napple pie");
+            Map<String, List<String>> options = new HashMap<>();
+            options.put("B", null);
+
+            int result = grepExecutor.execute(
+                    List.of("1", "apple", testFile.toString(), "missing.txt", secondFile.toString()),
+                    new CommandOptions(options),
+                    ioEnvironment
+            );
+
+            assertEquals(1, result);
+            assertEquals(testFile + ":apple\n" + secondFile + "-cherry\n" + secondFile + ":apple pie\n", outputStream.toString());
+            assertEquals("grep: missing.txt: No such file or directory\n", errorStream.toString());
+        } finally {
+            Files.deleteIfExists(secondFile);
+        }
+    }
+
+    @Test
+    void testOutputLargerThanBuffersKeepsFileOrder() throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<String> args = new ArrayList<>(List.of("line"));
+        StringBuilder expected = new StringBuilder();
+        try (ForkJoinPool pool = new ForkJoinPool(2)) {
+            for (int file = 0; file < 6; file++) {
+                Path path = Files.createTempFile("testFile", ".txt");
+                files.add(path);
+                args.add(path.toString());
+                StringBuilder content = new StringBuilder();
+                for (int i = 0; i < 20_000; i++) {
+                    content.append("line ").append(i).append('\n');
+                    expected.append(path).append(":line ").append(i).append('\n');
+                }
+                Files.writeString(path, content);
+            }
+
+            int result = new GrepExecutor(pool).execute(args, new CommandOptions(), ioEnvironment);
+
+            assertEquals(0, result);
+            assertEquals(expected.toString(), outputStream.toString());
+        } finally {
+            for (Path path : files) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    void testRecursiveSearch() throws IOException {
+        Path directory = Files.createTempDirectory("grepTest");
+        Path nested = Files.createDirectories(directory.resolve("nested"));
+        try {
+            Files.writeString(directory.resolve("a.txt"), "hello\nworld\n");
+            Files.writeString(directory.resolve("b.log"), "hello log\n");
+            Files.writeString(nested.resolve("c.txt"), "say hello\n");
+            Map<String, List<String>> options = new HashMap<>();
+            options.put("r", null);
+            options.put("exclude", List.of("*.log"));
+
+            int result = grepExecutor.execute(List.of("hello", directory.toString()), new CommandOptions(options), ioEnvironment);
+
+            assertEquals(0, result);
+            assertEquals(directory.resolve("a.txt") + ":hello\n" + nested.resolve("c.txt") + ":say hello\n", outputStream.toString());
+
+            outputStream.reset();
+            options.put("max-depth", List.of("1"));
+            grepExecutor.execute(List.of("hello", directory.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals(directory.resolve("a.txt") + ":hello\n", outputStream.toString());
+
+            outputStream.reset();
+            grepExecutor.execute(List.of("hello", directory.toString()), new CommandOptions(), ioEnvironment);
+            assertEquals("", outputStream.toString());
+            assertEquals("grep: " + directory + ": Is a directory\n", errorStream.toString());
+        } finally {
+            Files.delete(nested.resolve("c.txt"));
+            Files.delete(nested);
+            Files.delete(directory.resolve("a.txt"));
+            Files.delete(directory.resolve("b.log"));
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testSeveralPatterns() throws IOException {
+        Files.writeString(testFile, "id=17 ok\nid=42 failed\nid=99 ok\nid=7 ok");
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("e", List.of("id=42", "id=9"));
+
+        int result = grepExecutor.execute(List.of(testFile.toString()), new CommandOptions(options), ioEnvironment);
+
+        assertEquals(0, result);
+        assertEquals("id=42 failed\nid=99 ok\n", outputStream.toString());
+
+        outputStream.reset();
+        options.put("e", null);
+        options.put("color", null);
+        grepExecutor.execute(List.of("id=1.", testFile.toString()), new CommandOptions(options), ioEnvironment);
+        assertEquals("\u001B[31mid=17\u001B[0m ok\n", outputStream.toString());
+    }
+
+    @Test
+    void testPatternFile() throws IOException {
+        Path patternFile = Files.createTempFile("patterns", ".txt");
+        try {
+            Files.writeString(testFile, "id=17 ok\nid=42 failed\nid=99 ok");
+            Files.writeString(patternFile, "id=42\nid=17\n");
+            Map<String, List<String>> options = new HashMap<>();
+            options.put("f", List.of(patternFile.toString()));
+
+            int result = grepExecutor.execute(List.of(testFile.toString()), new CommandOptions(options), ioEnvironment);
+
+            assertEquals(0, result);
+            assertEquals("id=17 ok\nid=42 failed\n", outputStream.toString());
+
+            Files.writeString(patternFile, "");
+            outputStream.reset();
+            grepExecutor.execute(List.of(testFile.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals("", outputStream.toString());
+        } finally {
+            Files.deleteIfExists(patternFile);
+        }
+
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("f", List.of("missing.txt"));
+        int result = grepExecutor.execute(List.of(testFile.toString()), new CommandOptions(options), ioEnvironment);
+        assertEquals(1, result);
+        assertEquals("grep: missing.txt: No such file or directory\n", errorStream.toString());
+    }
+
+    @Test
+    void testMaxCount() throws IOException {
+        Files.writeString(testFile, "a1\nb\na2\na3\nc");
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("m", List.of("2"));
+        options.put("A", List.of("1"));
+
+        int result = grepExecutor.execute(List.of("a", testFile.toString()), new CommandOptions(options), ioEnvironment);
+
+        assertEquals(0, result);
+        assertEquals("a1\nb\na2\na3\n", outputStream.toString());
+    }
+
+    @Test
+    void testCountAndFilesWithMatches() throws IOException {
+        Path secondFile = Files.createTempFile("testFile", ".txt");
+        try {
+            Files.writeString(testFile, "apple\nbanana\napple pie\n");
+            Files.writeString(secondFile, "cherry");
+            Map<String, List<String>> options = new HashMap<>();
+            options.put("c", null);
+
+            grepExecutor.execute(List.of("apple", testFile.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals("2\n", outputStream.toString());
+
+            outputStream.reset();
+            grepExecutor.execute(List.of("apple", testFile.toString(), secondFile.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals(testFile + ":2\n" + secondFile + ":0\n", outputStream.toString());
+
+            outputStream.reset();
+            options.put("w", null);
+            options.put("m", List.of("1"));
+            grepExecutor.execute(List.of("apple", testFile.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals("1\n", outputStream.toString());
+
+            outputStream.reset();
+            options.put("l", null);
+            grepExecutor.execute(List.of("apple", testFile.toString(), secondFile.toString()), new CommandOptions(options), ioEnvironment);
+            assertEquals(testFile + "\n", outputStream.toString());
+        } finally {
+            Files.deleteIfExists(secondFile);
+        }
+    }
+
+    @Test
+    void testQuietStatus() throws IOException {
+        Files.writeString(testFile, "apple\nbanana\n");
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("q", null);
+
+        assertEquals(0, grepExecutor.execute(List.of("banana", testFile.toString()), new CommandOptions(options), ioEnvironment));
+        assertEquals(1, grepExecutor.execute(List.of("cherry", testFile.toString()), new CommandOptions(options), ioEnvironment));
+        assertEquals(0, grepExecutor.execute(List.of("banana", testFile.toString(), "missing.txt"), new CommandOptions(options), ioEnvironment));
+        assertEquals("", outputStream.toString());
+    }
+
+    @Test
+    void testQuietStopsReadingAtFirstMatch() throws Exception {
+        PipedOutputStream producer = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(producer);
+        ioEnvironment = new IOEnvironmentImpl(input, outputStream, errorStream);
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("q", null);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Integer> result = executor.submit(() ->
+                    grepExecutor.execute(List.of("match"), new CommandOptions(options), ioEnvironment));
+            producer.write("skip\nmatch\n".getBytes());
+            producer.flush();
+            // The input is never closed, the search must not wait for its end
+            int status = result.get(5, TimeUnit.SECONDS);
+            assertEquals(0, status);
+            assertEquals("", outputStream.toString());
+        }
+    }
+
+    @Test
+    void testPatternsAreCachedAcrossCalls() throws IOException {
+        Files.writeString(testFile, "hello world\n");
+        GrepPatternCache cache = new GrepPatternCache(4);
+        GrepExecutor executor = new GrepExecutor(ForkJoinPool.commonPool(), cache);
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("w", null);
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(List.of("hel+o", testFile.toString()), new CommandOptions(options), ioEnvironment);
+        }
+
+        assertEquals(1, cache.misses());
+        assertEquals(2, cache.hits());
+    }
+
+    private int executeParsed(String line) {
+        Command command = new ParserImpl(new EnvironmentImpl()).parse(line).commands().getFirst();
+        return grepExecutor.execute(command.args(), command.options(), ioEnvironment);
+    }
+
+    @Test
+    void testRepeatedPatternOptionsFromCommandLine() throws IOException {
+        Files.writeString(testFile, "alpha\nbeta\ngamma\n");
+
+        int result = executeParsed("grep -e alpha -e gamma " + testFile);
+
+        assertEquals(0, result);
+        assertEquals("alpha\ngamma\n", outputStream.toString());
+        assertEquals("", errorStream.toString());
+    }
+
+    @Test
+    void testContextOptionsInReverseOrder() throws IOException {
+        Files.writeString(testFile, "a\nb\nc\nX\nd\ne\nf\n");
+
+        int result = executeParsed("grep -B 1 -A 2 X " + testFile);
+
+        assertEquals(0, result);
+        assertEquals("c\nX\nd\ne\n", outputStream.toString());
+    }
+
+    @Test
+    void testMaxCountBeforeContextOption() throws IOException {
+        Files.writeString(testFile, "x1\na\nb\nx2\nc\nd\nx3\ne\n");
+
+        int result = executeParsed("grep -m 2 -A 1 x " + testFile);
+
+        assertEquals(0, result);
+        assertEquals("x1\na\nx2\nc\n", outputStream.toString());
+    }
+
+    @Test
+    void testMaxCountAfterContextOptions() throws IOException {
+        Files.writeString(testFile, "a\nx1\nb\nx2\nc\n");
+
+        int result = executeParsed("grep -A 1 -B=1 -m 1 x " + testFile);
+
+        assertEquals(0, result);
+        assertEquals("a\nx1\nb\n", outputStream.toString());
+    }
+}
@@ -0,0 +1,82 @@
+package cli.commandexecutor.commands;
+
+import cli.benchmark.Benchmarks;
+import cli.ioenvironment.IOEnvironmentImpl;
+import cli.model.CommandOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures {@code grep} with and without {@code --color} on an input where every line has several matches:
+ * the time and the memory allocated per printed line.
+ * The allocations are counted, not timed, so unlike the timings they are checked.
+ */
+@Tag(Benchmarks.TAG)
+class GrepHighlightBenchmarkTest {
+    private static final String LINE = "the cat sat on the mat with the hat and a bat";
+    private static final int LINES = 300_000;
+    private static final int RUNS = 5;
+
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("grepBenchmark", ".txt");
+        Files.writeString(testFile, (LINE + "\n").repeat(LINES));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private record Measurement(double nanosPerLine, double bytesPerLine) {
+    }
+
+    private Measurement measure(Map<String, List<String>> options) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // A single thread searches the file, so all the allocations happen in this thread
+        GrepExecutor grepExecutor = new GrepExecutor(new ForkJoinPool(1));
+        double bestNanos = Double.MAX_VALUE;
+        double bestBytes = Double.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            int result = grepExecutor.execute(List.of("at", testFile.toString()), new CommandOptions(options),
+                    new IOEnvironmentImpl(InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream()));
+            bestNanos = Math.min(bestNanos, (double) (System.nanoTime() - start) / LINES);
+            bestBytes = Math.min(bestBytes, (double) (threads.getCurrentThreadAllocatedBytes() - allocated) / LINES);
+            assertEquals(0, result);
+        }
+        return new Measurement(bestNanos, bestBytes);
+    }
+
+    @Test
+    void testHighlightingHighlyMatchingInput() {
+        Measurement plain = measure(new HashMap<>());
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("color", null);
+        Measurement colored = measure(options);
+
+        Benchmarks.report("grep, 5 matches per line: plain %.0f ns/line, %.1f bytes allocated/line; " +
+                        "--color %.0f ns/line, %.1f bytes allocated/line",
+                plain.nanosPerLine(), plain.bytesPerLine(), colored.nanosPerLine(), colored.bytesPerLine());
+        assertTrue(plain.bytesPerLine() < 16, "printing allocates per line");
+        assertTrue(colored.bytesPerLine() < 16, "highlighting allocates per line");
+    }
+}
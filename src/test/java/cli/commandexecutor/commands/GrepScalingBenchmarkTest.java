@@ -0,0 +1,74 @@
+package cli.commandexecutor.commands;
+
+import cli.benchmark.Benchmarks;
+import cli.ioenvironment.IOEnvironmentImpl;
+import cli.model.CommandOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Searches a large log for a regular expression with grep on pools of growing parallelism,
+ * up to the number of available cores. The pool of one thread uses the sequential search.
+ */
+@Tag(Benchmarks.TAG)
+class GrepScalingBenchmarkTest {
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final int RUNS = 3;
+    private static final String PATTERN = "ERROR .*timeout";
+
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Benchmarks.createLogFile(FILE_SIZE, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private String search(GrepExecutor grepExecutor) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int result = grepExecutor.execute(List.of(PATTERN, testFile.toString()), new CommandOptions(),
+                new IOEnvironmentImpl(InputStream.nullInputStream(), output, OutputStream.nullOutputStream()));
+        assertEquals(0, result);
+        return output.toString();
+    }
+
+    @Test
+    void testScalingWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String expectedOutput;
+        double sequentialSeconds;
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            GrepExecutor sequential = new GrepExecutor(pool);
+            expectedOutput = search(sequential);
+            sequentialSeconds = Benchmarks.bestSeconds(RUNS, () -> search(sequential));
+        }
+        Benchmarks.report("grep, 1 thread: %.0f MiB/s", Benchmarks.mibPerSecond(FILE_SIZE, sequentialSeconds));
+
+        for (int parallelism = 2; parallelism <= cores; parallelism *= 2) {
+            double parallelSeconds;
+            try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                GrepExecutor parallel = new GrepExecutor(pool);
+                parallelSeconds = Benchmarks.bestSeconds(RUNS, () -> assertEquals(expectedOutput, search(parallel)));
+            }
+            Benchmarks.report("grep, %d threads: %.0f MiB/s, speedup %.1fx",
+                    parallelism, Benchmarks.mibPerSecond(FILE_SIZE, parallelSeconds), sequentialSeconds / parallelSeconds);
+        }
+    }
+}
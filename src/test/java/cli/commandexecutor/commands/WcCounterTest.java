@@ -0,0 +1,97 @@
+package cli.commandexecutor.commands;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WcCounterTest {
+
+    private static WcCounter count(String... windows) {
+        WcCounter counter = new WcCounter();
+        for (String window : windows) {
+            counter.update(ByteBuffer.wrap(window.getBytes(StandardCharsets.UTF_8)));
+        }
+        return counter;
+    }
+
+    @Test
+    void testCountsLinesWordsAndBytes() {
+        WcCounter counter = count("  hello,\tworld\n\nпривет мир\r\nlast");
+        assertEquals(3, counter.lines());
+        assertEquals(5, counter.words());
+        assertEquals(41, counter.bytes());
+    }
+
+    @Test
+    void testWordSplitBetweenWindows() {
+        WcCounter counter = count("hel", "lo wo", "rld", "\n");
+        assertEquals(1, counter.lines());
+        assertEquals(2, counter.words());
+        assertEquals(12, counter.bytes());
+    }
+
+    @Test
+    void testEmptyInput() {
+        WcCounter counter = count();
+        assertEquals(0, counter.lines());
+        assertEquals(0, counter.words());
+        assertEquals(0, counter.bytes());
+    }
+
+    @Test
+    void testDirectAndSlicedBuffers() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(8).put("a b\nc d\n".getBytes()).flip();
+        ByteBuffer sliced = ByteBuffer.wrap("xx e f\nyy".getBytes()).position(2).limit(7).slice();
+        WcCounter counter = new WcCounter();
+        counter.update(direct);
+        counter.update(sliced);
+        assertEquals(3, counter.lines());
+        assertEquals(6, counter.words());
+        assertEquals(13, counter.bytes());
+        assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    void testCountersDoNotOverflow() {
+        byte[] chunk = "word\n".repeat(200_000).getBytes();
+        WcCounter counter = new WcCounter();
+        int repeats = 2200;
+        for (int i = 0; i < repeats; i++) {
+            counter.update(ByteBuffer.wrap(chunk));
+        }
+        long expectedLines = 200_000L * repeats;
+        assertEquals(expectedLines, counter.lines());
+        assertEquals(expectedLines, counter.words());
+        assertEquals((long) chunk.length * repeats, counter.bytes());
+        assertTrue(counter.bytes() > Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testVectorizedMatchesScalar() {
+        Random random = new Random(42);
+        byte[] alphabet = " \t\n\u000B\f\rab\u0008\u000E!".getBytes();
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(4) == 0 ? (byte) random.nextInt(256) : alphabet[random.nextInt(alphabet.length)];
+        }
+        for (int from : new int[]{0, 1, 13, 63}) {
+            for (boolean inWord : new boolean[]{false, true}) {
+                WcCounter scalar = new WcCounter(inWord, false);
+                WcCounter vectorized = new WcCounter(inWord, true);
+                scalar.update(ByteBuffer.wrap(data, from, data.length - from - 5));
+                vectorized.update(ByteBuffer.wrap(data, from, data.length - from - 5));
+                ByteBuffer direct = ByteBuffer.allocateDirect(5).put(data, data.length - 5, 5).flip();
+                scalar.update(direct.duplicate());
+                vectorized.update(direct.duplicate());
+
+                assertEquals(scalar.lines(), vectorized.lines());
+                assertEquals(scalar.words(), vectorized.words());
+                assertEquals(scalar.bytes(), vectorized.bytes());
+            }
+        }
+    }
+}
@@ -10,11 +10,16 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,7 +71,17 @@ class WcExecutorTest {
         ioEnvironment = new IOEnvironmentImpl(inputStream, outputStream, errorStream);
         int result = executor.execute(List.of(), new CommandOptions(), ioEnvironment);
         assertEquals(0, result);
-        assertEquals("2 2 10\n", outputStream.toString());
+        assertEquals("2 2 12\n", outputStream.toString());
+    }
+
+    @Test
+    void testWcNoFileNonAscii() {
+        WcExecutor executor = new WcExecutor();
+        InputStream inputStream = new ByteArrayInputStream("привет мир\n".getBytes(StandardCharsets.UTF_8));
+        ioEnvironment = new IOEnvironmentImpl(inputStream, outputStream, errorStream);
+        int result = executor.execute(List.of(), new CommandOptions(), ioEnvironment);
+        assertEquals(0, result);
+        assertEquals("1 2 20\n", outputStream.toString());
     }
 
     @Test
@@ -88,4 +103,63 @@ class WcExecutorTest {
         assertEquals("3 7 total", lines[2]);
     }
 
+    @Test
+    void testParallelCountMatchesSequential() throws IOException {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            content.append("слово".repeat(random.nextInt(3))).append(" \n\t".charAt(random.nextInt(3)));
+        }
+        Files.writeString(testFile, content.toString());
+
+        new WcExecutor().execute(List.of(testFile.toString()), new CommandOptions(), ioEnvironment);
+        String sequential = outputStream.toString();
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (long chunkSize : new long[]{1, 7, 1000}) {
+                outputStream.reset();
+                int result = new WcExecutor(Executors.newVirtualThreadPerTaskExecutor(), pool, 0, chunkSize).execute(List.of(testFile.toString()), new CommandOptions(), ioEnvironment);
+                assertEquals(0, result);
+                assertEquals(sequential, outputStream.toString());
+            }
+        }
+    }
+
+    @Test
+    void testManyFilesKeepOrder() throws IOException {
+        List<String> files = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Path file = Files.createTempFile("testFile" + i, ".txt");
+                files.add(file.toString());
+                Files.writeString(file, "word\n".repeat((50 - i) * 100));
+                expected.append((50 - i) * 100).append(" ").append(file).append(System.lineSeparator());
+            }
+            expected.append(127_500).append(" total").append(System.lineSeparator());
+            Map<String, List<String>> options = new HashMap<>();
+            options.put("l", null);
+
+            int result = wcExecutor.execute(files, new CommandOptions(options), ioEnvironment);
+            assertEquals(0, result);
+            assertEquals(expected.toString(), outputStream.toString());
+        } finally {
+            for (String file : files) {
+                Files.deleteIfExists(Path.of(file));
+            }
+        }
+    }
+
+    @Test
+    void testMissingFileAmongOthers() throws IOException {
+        Files.writeString(testFile, "a b\n");
+        Map<String, List<String>> options = new HashMap<>();
+        options.put("w", null);
+
+        int result = wcExecutor.execute(List.of(testFile.toString(), "nonexistent.txt", testFile.toString()),
+                new CommandOptions(options), ioEnvironment);
+        assertEquals(1, result);
+        String separator = System.lineSeparator();
+        assertEquals("2 " + testFile + separator + "2 " + testFile + separator + "4 total" + separator, outputStream.toString());
+        assertEquals("wc: cannot read file nonexistent.txt" + separator, errorStream.toString());
+    }
 }
@@ -0,0 +1,73 @@
+package cli.commandexecutor.commands;
+
+import cli.benchmark.Benchmarks;
+import cli.ioenvironment.IOEnvironmentImpl;
+import cli.model.CommandOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts a large log with wc on pools of growing parallelism, up to the number of available cores.
+ */
+@Tag(Benchmarks.TAG)
+class WcScalingBenchmarkTest {
+    private static final long FILE_SIZE = 1024L * 1024 * 1024;
+    private static final int RUNS = 3;
+
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Benchmarks.createLogFile(FILE_SIZE, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private String count(WcExecutor wcExecutor) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int result = wcExecutor.execute(List.of(testFile.toString()), new CommandOptions(),
+                new IOEnvironmentImpl(InputStream.nullInputStream(), output, OutputStream.nullOutputStream()));
+        assertEquals(0, result);
+        return output.toString();
+    }
+
+    @Test
+    void testScalingWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String expectedOutput;
+        double sequentialSeconds;
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            WcExecutor sequential = new WcExecutor(Executors.newVirtualThreadPerTaskExecutor(), pool);
+            expectedOutput = count(sequential);
+            sequentialSeconds = Benchmarks.bestSeconds(RUNS, () -> count(sequential));
+        }
+        Benchmarks.report("wc, 1 thread: %.0f MiB/s", Benchmarks.mibPerSecond(FILE_SIZE, sequentialSeconds));
+
+        for (int parallelism = 2; parallelism <= cores; parallelism *= 2) {
+            double parallelSeconds;
+            try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                WcExecutor parallel = new WcExecutor(Executors.newVirtualThreadPerTaskExecutor(), pool);
+                parallelSeconds = Benchmarks.bestSeconds(RUNS, () -> assertEquals(expectedOutput, count(parallel)));
+            }
+            Benchmarks.report("wc, %d threads: %.0f MiB/s, speedup %.1fx",
+                    parallelism, Benchmarks.mibPerSecond(FILE_SIZE, parallelSeconds), sequentialSeconds / parallelSeconds);
+        }
+    }
+}
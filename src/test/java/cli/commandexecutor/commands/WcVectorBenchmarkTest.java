@@ -0,0 +1,49 @@
+package cli.commandexecutor.commands;
+
+import cli.benchmark.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the throughput of the scalar and the Vector API kernels of wc on heap and direct buffers.
+ */
+@Tag(Benchmarks.TAG)
+class WcVectorBenchmarkTest {
+    private static final int SIZE = 64 * 1024 * 1024;
+    private static final int RUNS = 10;
+
+    private static double mibPerSecond(ByteBuffer data, boolean vectorized, WcCounter expected) throws Exception {
+        double seconds = Benchmarks.bestSeconds(RUNS, () -> {
+            WcCounter counter = new WcCounter(false, vectorized);
+            counter.update(data.duplicate());
+            assertEquals(expected.lines(), counter.lines());
+            assertEquals(expected.words(), counter.words());
+        });
+        return Benchmarks.mibPerSecond(SIZE, seconds);
+    }
+
+    @Test
+    void testScalarVersusVector() throws Exception {
+        byte[] text = new byte[SIZE];
+        Random random = new Random(42);
+        for (int i = 0; i < text.length; i++) {
+            int kind = random.nextInt(8);
+            text[i] = (byte) (kind == 0 ? ' ' : kind == 1 ? '\n' : 'a' + random.nextInt(26));
+        }
+        ByteBuffer heap = ByteBuffer.wrap(text);
+        ByteBuffer direct = ByteBuffer.allocateDirect(SIZE).put(text).flip();
+        WcCounter expected = new WcCounter(false, false);
+        expected.update(heap.duplicate());
+
+        Benchmarks.report("wc kernel (Vector API %s): heap scalar %.0f MiB/s, vector %.0f MiB/s; "
+                        + "direct scalar %.0f MiB/s, vector %.0f MiB/s",
+                WcCounter.VECTOR_API_AVAILABLE ? "available" : "not available",
+                mibPerSecond(heap, false, expected), mibPerSecond(heap, true, expected),
+                mibPerSecond(direct, false, expected), mibPerSecond(direct, true, expected));
+    }
+}
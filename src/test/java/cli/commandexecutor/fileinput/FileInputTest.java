@@ -0,0 +1,123 @@
+package cli.commandexecutor.fileinput;
+
+import cli.ioenvironment.FlushPolicy;
+import cli.ioenvironment.IOEnvironmentImpl;
+import cli.ioenvironment.LineReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileInputTest {
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("testFile", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private static String readAll(FileInput input) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteBuffer window;
+        while ((window = input.nextWindow()) != null) {
+            byte[] bytes = new byte[window.remaining()];
+            window.get(bytes);
+            content.write(bytes);
+        }
+        return content.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSmallFileIsBuffered() throws IOException {
+        Files.writeString(testFile, "hello\nworld\n");
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            assertInstanceOf(BufferedFileInput.class, input);
+            assertEquals(12, input.size());
+            assertEquals("hello\nworld\n", readAll(input));
+        }
+    }
+
+    @Test
+    void testLargeFileIsMapped() throws IOException {
+        String content = "line\n".repeat((int) (FileInputFactory.MAPPING_THRESHOLD / 5) + 1);
+        Files.writeString(testFile, content);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            assertInstanceOf(MappedFileInput.class, input);
+            assertEquals(content.length(), input.size());
+            assertEquals(content, readAll(input));
+        }
+    }
+
+    @Test
+    void testLinesSpanningMappedWindows() throws IOException {
+        Files.writeString(testFile, "первая строка\nвторая\n\nпоследняя");
+        try (FileChannel channel = FileChannel.open(testFile, StandardOpenOption.READ)) {
+            LineReader lineReader = new MappedFileInput(channel, channel.size(), 5).lines(StandardCharsets.UTF_8);
+            assertEquals("первая строка", lineReader.readLine());
+            assertEquals("вторая", lineReader.readLine());
+            assertEquals("", lineReader.readLine());
+            assertEquals("последняя", lineReader.readLine());
+            assertNull(lineReader.readLine());
+        }
+    }
+
+    @Test
+    void testWindowAtPosition() throws IOException {
+        Files.writeString(testFile, "0123456789");
+        try (FileChannel channel = FileChannel.open(testFile, StandardOpenOption.READ)) {
+            FileInput mapped = new MappedFileInput(channel, channel.size());
+            assertEquals(ByteBuffer.wrap("3456".getBytes()), mapped.window(3, 4));
+            assertEquals(ByteBuffer.wrap("89".getBytes()), mapped.window(8, 4));
+        }
+        try (FileInput buffered = FileInputFactory.open(testFile)) {
+            assertEquals(ByteBuffer.wrap("3456".getBytes()), buffered.window(3, 4));
+            assertEquals("0123456789", readAll(buffered));
+        }
+    }
+
+    @Test
+    void testInputStream() throws IOException {
+        IOEnvironmentImpl ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream("a\nb".getBytes()),
+                OutputStream.nullOutputStream(), OutputStream.nullOutputStream());
+        try (FileInput input = FileInputFactory.of(ioEnvironment)) {
+            assertEquals(-1, input.size());
+            assertThrows(UnsupportedOperationException.class, () -> input.window(0, 1));
+            LineReader lineReader = input.lines(StandardCharsets.UTF_8);
+            assertEquals("a", lineReader.readLine());
+            assertEquals("b", lineReader.readLine());
+            assertNull(lineReader.readLine());
+        }
+    }
+
+    @Test
+    void testTransferTo() throws IOException {
+        String content = "x".repeat((int) FileInputFactory.MAPPING_THRESHOLD * 2);
+        Files.writeString(testFile, content);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        IOEnvironmentImpl ioEnvironment = new IOEnvironmentImpl(InputStream.nullInputStream(), output,
+                OutputStream.nullOutputStream(), FlushPolicy.BLOCK);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            assertEquals(content.length(), input.transferTo(ioEnvironment));
+        }
+        ioEnvironment.flush();
+        assertEquals(content, output.toString());
+    }
+}
@@ -0,0 +1,116 @@
+package cli.commandexecutor.grep;
+
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteGrepSearcherTest {
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("testFile", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private List<String> searchBytes(GrepPattern pattern, int before, int after, int windowSize) throws IOException {
+        return searchBytes(pattern, before, after, Long.MAX_VALUE, windowSize);
+    }
+
+    private List<String> searchBytes(GrepPattern pattern, int before, int after, long maxCount, int windowSize) throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), before, after, maxCount);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            new ByteGrepSearcher(pattern.bytePattern(), pattern.matcher(), contextPrinter, windowSize).search(input);
+        }
+        return printed;
+    }
+
+    private List<String> searchLines(GrepPattern pattern, int before, int after) throws IOException {
+        return searchLines(pattern, before, after, Long.MAX_VALUE);
+    }
+
+    private List<String> searchLines(GrepPattern pattern, int before, int after, long maxCount) throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), before, after, maxCount);
+        LineMatcher matcher = pattern.matcher();
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            var lineReader = input.lines(StandardCharsets.UTF_8);
+            CharSequence line;
+            while (!contextPrinter.isDone() && (line = lineReader.readLineView()) != null) {
+                contextPrinter.accept(line, matcher.find(line));
+            }
+        }
+        return printed;
+    }
+
+    @Test
+    void testOnlyCandidateLinesArePrinted() throws IOException {
+        Files.writeString(testFile, "first\nпривет мир\nmirror\nмир\nlast");
+        GrepPattern pattern = GrepPattern.compile("мир", new PatternOptions(false, false, true));
+        assertEquals(List.of("+привет мир", "+мир"), searchBytes(pattern, 0, 0, 1024));
+        assertEquals(List.of("-first", "+привет мир", "-mirror", "+мир", "-last"), searchBytes(pattern, 1, 1, 1024));
+    }
+
+    @Test
+    void testLinesLongerThanLargestWindowAreReadLineByLine() throws IOException {
+        String longLine = "x".repeat(100);
+        Files.writeString(testFile, "a\nb\n" + longLine + "\nmatch " + longLine + "\nc\nmatch\n");
+        GrepPattern pattern = GrepPattern.compile("match", new PatternOptions(false, false, false));
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), 1, 0);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    new ByteGrepSearcher(pattern.bytePattern(), pattern.matcher(), contextPrinter, 16, 64).search(input));
+        }
+
+        assertEquals(searchLines(pattern, 1, 0), printed);
+        assertEquals(List.of("-" + longLine, "+match " + longLine, "-c", "+match"), printed);
+    }
+
+    @Test
+    void testMatchesLineByLineSearch() throws IOException {
+        Random random = new Random(42);
+        String[] words = {"alpha", "Beta", "гамма", "beta", "betamax", "", " "};
+        for (int iteration = 0; iteration < 300; iteration++) {
+            StringBuilder content = new StringBuilder();
+            int lines = random.nextInt(30);
+            for (int i = 0; i < lines; i++) {
+                for (int j = random.nextInt(4); j > 0; j--) {
+                    content.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                content.append('\n');
+            }
+            if (random.nextBoolean()) {
+                content.append(words[random.nextInt(words.length)]);
+            }
+            Files.writeString(testFile, content);
+            PatternOptions options = new PatternOptions(false, random.nextBoolean(), random.nextBoolean());
+            GrepPattern pattern = GrepPattern.compile(random.nextBoolean() || options.ignoreCase() ? "beta" : "гамма", options);
+            int before = random.nextInt(3);
+            int after = random.nextInt(3);
+            int windowSize = 1 + random.nextInt(40);
+            long maxCount = random.nextBoolean() ? Long.MAX_VALUE : random.nextInt(4);
+
+            assertEquals(searchLines(pattern, before, after, maxCount), searchBytes(pattern, before, after, maxCount, windowSize),
+                    "window " + windowSize + ", -B " + before + ", -A " + after + ", -m " + maxCount + ", " + options + ": " + content);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cli.commandexecutor.grep;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextPrinterTest {
+
+    private static List<String> print(String input, String match, int before, int after) throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter(
+                (line, matched) -> printed.add((matched ? "+" : "-") + line), before, after);
+        for (String line : input.split(" ")) {
+            contextPrinter.accept(line, line.startsWith(match));
+        }
+        return printed;
+    }
+
+    @Test
+    void testOnlyMatches() throws IOException {
+        assertEquals(List.of("+m1", "+m2"), print("a m1 b c m2 d", "m", 0, 0));
+    }
+
+    @Test
+    void testAfterContext() throws IOException {
+        assertEquals(List.of("+m1", "-a", "+m2", "-c", "-d"), print("m1 a m2 c d e", "m", 0, 2));
+    }
+
+    @Test
+    void testBeforeContext() throws IOException {
+        assertEquals(List.of("-b", "-c", "+m1", "+m2", "-e", "-f", "+m3"), print("a b c m1 m2 d e f m3 g", "m", 2, 0));
+    }
+
+    @Test
+    void testBeforeAndAfterContextDoNotRepeatLines() throws IOException {
+        assertEquals(List.of("-a", "+m1", "-b", "-c", "+m2", "-d"), print("a m1 b c m2 d e", "m", 2, 1));
+    }
+
+    @Test
+    void testMaxCountPrintsTrailingContext() throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), 1, 2, 2);
+        String[] lines = "a m1 m2 m3 b c d".split(" ");
+        int accepted = 0;
+        while (!contextPrinter.isDone()) {
+            contextPrinter.accept(lines[accepted], lines[accepted].startsWith("m"));
+            accepted++;
+        }
+        assertEquals(5, accepted);
+        assertEquals(2, contextPrinter.matchCount());
+        assertEquals(List.of("-a", "+m1", "+m2", "-m3", "-b"), printed);
+    }
+
+    @Test
+    void testCountingPrinter() throws IOException {
+        ContextPrinter contextPrinter = ContextPrinter.counting(Long.MAX_VALUE);
+        assertTrue(contextPrinter.isCounting());
+        contextPrinter.accept(null, true);
+        contextPrinter.accept("a", false);
+        contextPrinter.accept(null, true);
+        assertEquals(2, contextPrinter.matchCount());
+        assertFalse(contextPrinter.isDone());
+        assertTrue(ContextPrinter.counting(0).isDone());
+    }
+
+    @Test
+    void testRingBufferKeepsLastLines() {
+        LineRingBuffer buffer = new LineRingBuffer(2);
+        StringBuilder line = new StringBuilder("first");
+        buffer.add(line);
+        line.setLength(0);
+        line.append("second");
+        buffer.add(line);
+        buffer.add("third");
+
+        assertEquals(2, buffer.size());
+        assertEquals("second", buffer.get(0).toString());
+        assertEquals("third", buffer.get(1).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(2));
+        buffer.clear();
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,65 @@
+package cli.commandexecutor.grep;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWalkerTest {
+    private Path root;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("walkerTest");
+        pool = new ForkJoinPool(4);
+        for (String file : List.of("b.txt", "a.log", "src/main.java", "src/util/io.java", "build/out.txt", "src/z.txt")) {
+            Path path = root.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, file);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.close();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private List<String> walk(int maxDepth, List<String> excludedFiles, List<String> excludedDirectories) {
+        return new DirectoryWalker(pool, maxDepth, excludedFiles, excludedDirectories).walk(root).join().stream()
+                .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                .toList();
+    }
+
+    @Test
+    void testFilesInSequentialWalkOrder() {
+        assertEquals(List.of("a.log", "b.txt", "build/out.txt", "src/main.java", "src/util/io.java", "src/z.txt"),
+                walk(DirectoryWalker.UNLIMITED_DEPTH, List.of(), List.of()));
+    }
+
+    @Test
+    void testMaxDepth() {
+        assertEquals(List.of("a.log", "b.txt"), walk(1, List.of(), List.of()));
+        assertEquals(List.of("a.log", "b.txt", "build/out.txt", "src/main.java", "src/z.txt"), walk(2, List.of(), List.of()));
+    }
+
+    @Test
+    void testExcludedFilesAndDirectories() {
+        assertEquals(List.of("b.txt", "src/main.java", "src/z.txt"), walk(DirectoryWalker.UNLIMITED_DEPTH, List.of("*.log", "io.*"), List.of("build")));
+        assertEquals(List.of("a.log", "b.txt"), walk(DirectoryWalker.UNLIMITED_DEPTH, List.of(), List.of("*")));
+    }
+}
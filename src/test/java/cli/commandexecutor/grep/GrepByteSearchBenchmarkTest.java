@@ -0,0 +1,90 @@
+package cli.commandexecutor.grep;
+
+import cli.benchmark.Benchmarks;
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import cli.ioenvironment.LineReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares decoding every line of a file with searching its bytes, for a pattern found in few lines.
+ */
+@Tag(Benchmarks.TAG)
+class GrepByteSearchBenchmarkTest {
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final int ERROR_PERIOD = 10_000;
+    private static final int RUNS = 3;
+    private static final String PATTERN = "timeout";
+
+    private Path testFile;
+    private int expectedMatches;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Benchmarks.createLogFile(FILE_SIZE, ERROR_PERIOD);
+        long blockSize = Benchmarks.LOG_LINE.length() * (ERROR_PERIOD - 1L) + Benchmarks.ERROR_LINE.length();
+        expectedMatches = (int) (Files.size(testFile) / blockSize);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private interface Search {
+        int run(GrepPattern pattern) throws IOException;
+    }
+
+    private int searchLines(GrepPattern pattern) throws IOException {
+        LineMatcher matcher = pattern.matcher();
+        int[] matches = {0};
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> matches[0]++, 0, 0);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            LineReader lineReader = input.lines(StandardCharsets.UTF_8);
+            CharSequence line;
+            while ((line = lineReader.readLineView()) != null) {
+                contextPrinter.accept(line, matcher.find(line));
+            }
+        }
+        return matches[0];
+    }
+
+    private int searchBytes(GrepPattern pattern) throws IOException {
+        int[] matches = {0};
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> matches[0]++, 0, 0);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            new ByteGrepSearcher(pattern.bytePattern(), pattern.matcher(), contextPrinter).search(input);
+        }
+        return matches[0];
+    }
+
+    /**
+     * @return the time of the fastest run in seconds and the bytes allocated by one run.
+     */
+    private double[] measure(Search search, GrepPattern pattern) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        double seconds = Benchmarks.bestSeconds(RUNS, () -> assertEquals(expectedMatches, search.run(pattern)));
+        return new double[]{seconds, (double) (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / RUNS};
+    }
+
+    @Test
+    void testByteSearchVersusDecoding() throws Exception {
+        GrepPattern pattern = GrepPattern.compile(PATTERN, new PatternOptions(false, false, false));
+        double[] lines = measure(this::searchLines, pattern);
+        double[] bytes = measure(this::searchBytes, pattern);
+        Benchmarks.report("grep %s over %d MiB: decoding lines %.2f s (%.0f KiB allocated), searching bytes %.2f s (%.0f KiB allocated)",
+                PATTERN, FILE_SIZE >> 20, lines[0], lines[1] / 1024, bytes[0], bytes[1] / 1024);
+    }
+}
@@ -0,0 +1,55 @@
+package cli.commandexecutor.grep;
+
+import cli.benchmark.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the literal search with java.util.regex on log lines where the pattern is rare.
+ */
+@Tag(Benchmarks.TAG)
+class GrepLiteralBenchmarkTest {
+    private static final int LINES = 200_000;
+    private static final int RUNS = 5;
+    private static final String PATTERN = "request_id=deadbeef";
+
+    private static String[] generateLines() {
+        Random random = new Random(42);
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = "2024-01-01 12:00:" + (i % 60) + " INFO handler-" + random.nextInt(100)
+                    + " request_id=" + Integer.toHexString(random.nextInt()) + " handled in " + random.nextInt(1000) + " ms";
+        }
+        lines[LINES / 2] = "2024-01-01 12:00:00 ERROR " + PATTERN + " failed";
+        return lines;
+    }
+
+    private static double nanosPerLine(GrepPattern pattern, String[] lines) throws Exception {
+        LineMatcher matcher = pattern.matcher();
+        double seconds = Benchmarks.bestSeconds(RUNS, () -> {
+            int matches = 0;
+            for (String line : lines) {
+                if (matcher.find(line)) {
+                    matches++;
+                }
+            }
+            assertEquals(1, matches);
+        });
+        return seconds * 1e9 / lines.length;
+    }
+
+    @Test
+    void testLiteralVersusRegex() throws Exception {
+        String[] lines = generateLines();
+        for (boolean ignoreCase : new boolean[]{false, true}) {
+            double literal = nanosPerLine(new LiteralPattern(PATTERN, ignoreCase, false), lines);
+            double regex = nanosPerLine(new RegexPattern(PATTERN, true, ignoreCase, false), lines);
+            Benchmarks.report("grep %s%s: literal %.0f ns/line, regex %.0f ns/line",
+                    ignoreCase ? "-i " : "", PATTERN, literal, regex);
+        }
+    }
+}
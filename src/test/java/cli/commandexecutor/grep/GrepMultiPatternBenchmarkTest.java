@@ -0,0 +1,77 @@
+package cli.commandexecutor.grep;
+
+import cli.benchmark.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the Aho–Corasick search of many request ids with a java.util.regex alternation of them.
+ * The alternation tries every id at every position, so it is measured on fewer lines as the number of ids grows.
+ */
+@Tag(Benchmarks.TAG)
+class GrepMultiPatternBenchmarkTest {
+    private static final int LINES = 200_000;
+    private static final int RUNS = 3;
+
+    private static String randomId(Random random) {
+        return String.format("%08x", random.nextInt());
+    }
+
+    private static String[] generateLines(Random random, List<String> ids) {
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            String id = i % 1000 == 0 ? ids.get(random.nextInt(ids.size())) : randomId(random);
+            lines[i] = "2024-01-01 12:00:" + (i % 60) + " INFO handler-" + random.nextInt(100)
+                    + " request_id=" + id + " handled in " + random.nextInt(1000) + " ms";
+        }
+        return lines;
+    }
+
+    private static int countMatches(GrepPattern pattern, String[] lines) {
+        LineMatcher matcher = pattern.matcher();
+        int matches = 0;
+        for (String line : lines) {
+            if (matcher.find(line)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static double nanosPerLine(GrepPattern pattern, String[] lines, int expectedMatches) throws Exception {
+        double seconds = Benchmarks.bestSeconds(RUNS, () -> assertEquals(expectedMatches, countMatches(pattern, lines)));
+        return seconds * 1e9 / lines.length;
+    }
+
+    @Test
+    void testAhoCorasickVersusAlternation() throws Exception {
+        for (int count : new int[]{10, 1_000, 100_000}) {
+            Random random = new Random(42);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids.add(randomId(random));
+            }
+            String[] lines = generateLines(random, ids);
+
+            long buildStart = System.nanoTime();
+            GrepPattern literals = new MultiLiteralPattern(ids, false, false);
+            double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+            GrepPattern alternation = new RegexPattern(ids, true, false, false);
+
+            String[] regexLines = Arrays.copyOf(lines, Math.max(2, LINES / count));
+            int regexMatches = countMatches(alternation, regexLines);
+            assertEquals(regexMatches, countMatches(literals, regexLines));
+            double literal = nanosPerLine(literals, lines, countMatches(literals, lines));
+            double regex = nanosPerLine(alternation, regexLines, regexMatches);
+            Benchmarks.report("grep %d ids: Aho-Corasick %.0f ns/line (built in %.0f ms), regex alternation %.0f ns/line",
+                    count, literal, buildMillis, regex);
+        }
+    }
+}
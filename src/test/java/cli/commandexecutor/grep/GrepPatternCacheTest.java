@@ -0,0 +1,80 @@
+package cli.commandexecutor.grep;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrepPatternCacheTest {
+    private static final PatternOptions DEFAULT = new PatternOptions(false, false, false);
+
+    @Test
+    void testReturnsCachedPattern() {
+        GrepPatternCache cache = new GrepPatternCache(4);
+        GrepPattern first = cache.compile(List.of("a.b"), DEFAULT);
+
+        assertSame(first, cache.compile(List.of("a.b"), DEFAULT));
+        assertNotSame(first, cache.compile(List.of("a.b"), new PatternOptions(false, false, true)));
+        assertNotSame(first, cache.compile(List.of("a.b", "c"), DEFAULT));
+        assertEquals(1, cache.hits());
+        assertEquals(3, cache.misses());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        GrepPatternCache cache = new GrepPatternCache(2);
+        GrepPattern a = cache.compile(List.of("a"), DEFAULT);
+        GrepPattern b = cache.compile(List.of("b"), DEFAULT);
+        cache.compile(List.of("a"), DEFAULT);
+        cache.compile(List.of("c"), DEFAULT);
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.compile(List.of("a"), DEFAULT));
+        assertNotSame(b, cache.compile(List.of("b"), DEFAULT));
+    }
+
+    @Test
+    void testInvalidAndLongPatternsAreNotCached() {
+        GrepPatternCache cache = new GrepPatternCache(4);
+        assertThrows(PatternSyntaxException.class, () -> cache.compile(List.of("("), DEFAULT));
+        List<String> longList = Collections.nCopies(GrepPatternCache.MAX_CACHED_LENGTH / 8 + 1, "12345678");
+        assertNotSame(cache.compile(longList, DEFAULT), cache.compile(longList, DEFAULT));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hits());
+    }
+
+    @Test
+    void testConcurrentLookups() throws Exception {
+        GrepPatternCache cache = new GrepPatternCache(8);
+        Set<GrepPattern> distinct = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        GrepPattern pattern = cache.compile(List.of("p" + i % 4), DEFAULT);
+                        if (i >= 900) {
+                            distinct.add(pattern);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(4, distinct.size());
+        long lookups = cache.hits() + cache.misses();
+        assertEquals(4_000, lookups);
+    }
+}
@@ -0,0 +1,151 @@
+package cli.commandexecutor.grep;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrepPatternTest {
+    private static final PatternOptions DEFAULT = new PatternOptions(false, false, false);
+
+    @Test
+    void testLiteralPatternsBypassRegex() {
+        assertInstanceOf(LiteralPattern.class, GrepPattern.compile("hello", DEFAULT));
+        assertInstanceOf(LiteralPattern.class, GrepPattern.compile("hello", new PatternOptions(false, true, false)));
+        assertInstanceOf(LiteralPattern.class, GrepPattern.compile("a.b", new PatternOptions(true, false, false)));
+        assertInstanceOf(RegexPattern.class, GrepPattern.compile("a.b", DEFAULT));
+        assertInstanceOf(RegexPattern.class, GrepPattern.compile("привет", new PatternOptions(false, true, false)));
+        assertThrows(PatternSyntaxException.class, () -> GrepPattern.compile("(", DEFAULT));
+    }
+
+    @Test
+    void testFindReportsBounds() {
+        LineMatcher matcher = GrepPattern.compile("abc", DEFAULT).matcher();
+        assertTrue(matcher.find("xxabcxabc"));
+        assertEquals(2, matcher.start());
+        assertEquals(5, matcher.end());
+        assertTrue(matcher.find("xxabcxabc", 3));
+        assertEquals(6, matcher.start());
+        assertFalse(matcher.find("xxabcxabc", 7));
+        assertFalse(matcher.find("ab"));
+    }
+
+    @Test
+    void testFixedStrings() {
+        LineMatcher matcher = GrepPattern.compile("a.b*", new PatternOptions(true, false, false)).matcher();
+        assertTrue(matcher.find("x a.b* y"));
+        assertFalse(matcher.find("axbbb"));
+    }
+
+    @Test
+    void testIgnoreCase() {
+        LineMatcher matcher = GrepPattern.compile("HeLLo", new PatternOptions(false, true, false)).matcher();
+        assertTrue(matcher.find("say hello"));
+        assertTrue(matcher.find("SAY HELLO"));
+        assertFalse(matcher.find("say help"));
+    }
+
+    @Test
+    void testWholeWord() {
+        LineMatcher matcher = GrepPattern.compile("и", new PatternOptions(false, false, true)).matcher();
+        assertTrue(matcher.find("мир и"));
+        assertTrue(matcher.find("игра и"));
+        assertEquals(5, matcher.start());
+        assertFalse(matcher.find("игра"));
+        assertFalse(matcher.find("при"));
+    }
+
+    @Test
+    void testLiteralMatchesLikeRegex() {
+        Random random = new Random(42);
+        String alphabet = "abAB _-.дД1";
+        for (int iteration = 0; iteration < 2_000; iteration++) {
+            String pattern = randomString(random, alphabet.replace(".", ""), 1 + random.nextInt(3));
+            String line = randomString(random, alphabet, random.nextInt(20));
+            boolean ignoreCase = random.nextBoolean() && LiteralPattern.isAscii(pattern);
+            boolean wholeWord = random.nextBoolean();
+            LineMatcher literal = new LiteralPattern(pattern, ignoreCase, wholeWord).matcher();
+            LineMatcher regex = new RegexPattern(pattern, true, ignoreCase, wholeWord).matcher();
+            int from = 0;
+            while (true) {
+                boolean found = regex.find(line, from);
+                assertEquals(found, literal.find(line, from), pattern + " in " + line);
+                if (!found) {
+                    break;
+                }
+                assertEquals(regex.start(), literal.start(), pattern + " in " + line);
+                assertEquals(regex.end(), literal.end(), pattern + " in " + line);
+                from = regex.start() + 1;
+            }
+        }
+    }
+
+    @Test
+    void testSeveralPatterns() {
+        assertInstanceOf(MultiLiteralPattern.class, GrepPattern.compile(List.of("he", "hello"), DEFAULT));
+        assertInstanceOf(RegexPattern.class, GrepPattern.compile(List.of("he", "h.llo"), DEFAULT));
+        assertInstanceOf(LiteralPattern.class, GrepPattern.compile(List.of("hello"), DEFAULT));
+
+        LineMatcher matcher = GrepPattern.compile(List.of("he", "hello", "lo w"), DEFAULT).matcher();
+        assertTrue(matcher.find("say hello world"));
+        assertEquals(4, matcher.start());
+        assertEquals(9, matcher.end());
+        assertTrue(matcher.find("say hello world", 5));
+        assertEquals(7, matcher.start());
+        assertEquals(11, matcher.end());
+        assertFalse(GrepPattern.compile(List.of(), DEFAULT).matcher().find("anything"));
+        assertTrue(GrepPattern.compile(List.of("x", ""), DEFAULT).matcher().find("anything"));
+        assertTrue(GrepPattern.compile(List.of("b.", "x"), DEFAULT).matcher().find("abc"));
+    }
+
+    @Test
+    void testSeveralLiteralsMatchLikeRegex() {
+        Random random = new Random(42);
+        String alphabet = "abAB _-дД1";
+        for (int iteration = 0; iteration < 2_000; iteration++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = 1 + random.nextInt(5); i > 0; i--) {
+                patterns.add(randomString(random, alphabet, 1 + random.nextInt(3)));
+            }
+            String line = randomString(random, alphabet, random.nextInt(20));
+            boolean ignoreCase = random.nextBoolean() && patterns.stream().allMatch(LiteralPattern::isAscii);
+            boolean wholeWord = random.nextBoolean();
+            MultiLiteralPattern multiLiteral = new MultiLiteralPattern(patterns, ignoreCase, wholeWord);
+            LineMatcher literals = multiLiteral.matcher();
+            // An alternation tries the longer strings first, so it finds the leftmost longest occurrence too
+            List<String> longestFirst = patterns.stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
+            LineMatcher regex = new RegexPattern(longestFirst, true, ignoreCase, wholeWord).matcher();
+            String description = patterns + " in " + line;
+            int from = 0;
+            while (true) {
+                boolean found = regex.find(line, from);
+                assertEquals(found, literals.find(line, from), description);
+                if (!found) {
+                    break;
+                }
+                assertEquals(regex.start(), literals.start(), description);
+                assertEquals(regex.end(), literals.end(), description);
+                from = regex.start() + 1;
+            }
+            if (literals.find(line)) {
+                ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+                assertTrue(multiLiteral.bytePattern().indexIn(bytes, 0, bytes.limit()) >= 0, description);
+            }
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
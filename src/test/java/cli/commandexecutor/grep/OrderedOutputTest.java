@@ -0,0 +1,82 @@
+package cli.commandexecutor.grep;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderedOutputTest {
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+    private static void write(OrderedOutput output, String text) throws IOException {
+        output.write(text.getBytes(), 0, text.length());
+    }
+
+    @Test
+    void testBuffersUntilReleased() throws IOException {
+        OrderedOutput output = new OrderedOutput(sink::write, 16);
+
+        write(output, "first ");
+        assertEquals(0, sink.size());
+        output.release();
+        write(output, "second");
+
+        assertEquals("first second", sink.toString());
+    }
+
+    @Test
+    void testWriterWaitsForTurnWhenBufferIsFull() throws Exception {
+        OrderedOutput output = new OrderedOutput(sink::write, 4);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> writer = executor.submit(() -> {
+                write(output, "0123456789");
+                return null;
+            });
+
+            assertThrows(TimeoutException.class, () -> writer.get(100, TimeUnit.MILLISECONDS));
+            assertEquals(0, sink.size());
+            output.release();
+            writer.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals("0123456789", sink.toString());
+    }
+
+    @Test
+    void testCloseStopsWaitingWriter() throws Exception {
+        OrderedOutput output = new OrderedOutput(sink::write, 4);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> writer = executor.submit(() -> {
+                write(output, "0123456789");
+                return null;
+            });
+
+            assertThrows(TimeoutException.class, () -> writer.get(100, TimeUnit.MILLISECONDS));
+            output.close();
+            Exception e = assertThrows(Exception.class, () -> writer.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause());
+        }
+
+        output.release();
+        assertEquals(0, sink.size());
+    }
+
+    @Test
+    void testSinkFailureIsRecorded() {
+        IOException failure = new IOException("Broken pipe");
+        OrderedOutput output = new OrderedOutput((buffer, offset, length) -> {
+            throw failure;
+        });
+
+        assertDoesNotThrow(() -> write(output, "line"));
+        assertThrows(IOException.class, output::release);
+        assertSame(failure, output.failure());
+    }
+}
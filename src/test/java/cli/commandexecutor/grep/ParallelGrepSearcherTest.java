@@ -0,0 +1,101 @@
+package cli.commandexecutor.grep;
+
+import cli.commandexecutor.fileinput.FileInput;
+import cli.commandexecutor.fileinput.FileInputFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGrepSearcherTest {
+    private Path testFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = Files.createTempFile("testFile", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private List<String> searchParallel(GrepPattern pattern, int before, int after, ForkJoinPool pool, long chunkSize) throws IOException {
+        return searchParallel(pattern, before, after, Long.MAX_VALUE, pool, chunkSize);
+    }
+
+    private List<String> searchParallel(GrepPattern pattern, int before, int after, long maxCount, ForkJoinPool pool, long chunkSize) throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), before, after, maxCount);
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            new ParallelGrepSearcher(pattern, contextPrinter, pool, chunkSize).search(input);
+        }
+        return printed;
+    }
+
+    private List<String> searchLines(GrepPattern pattern, int before, int after, long maxCount) throws IOException {
+        List<String> printed = new ArrayList<>();
+        ContextPrinter contextPrinter = new ContextPrinter((line, matched) -> printed.add((matched ? "+" : "-") + line), before, after, maxCount);
+        LineMatcher matcher = pattern.matcher();
+        try (FileInput input = FileInputFactory.open(testFile)) {
+            var lineReader = input.lines(StandardCharsets.UTF_8);
+            CharSequence line;
+            while (!contextPrinter.isDone() && (line = lineReader.readLineView()) != null) {
+                contextPrinter.accept(line, matcher.find(line));
+            }
+        }
+        return printed;
+    }
+
+    @Test
+    void testContextCrossesChunks() throws IOException {
+        Files.writeString(testFile, "a\nb\nmatch\nc\nd\ne\nf\nmatch\ng");
+        GrepPattern pattern = GrepPattern.compile("match", new PatternOptions(false, false, false));
+        try (ForkJoinPool pool = new ForkJoinPool(3)) {
+            assertEquals(List.of("-b", "+match", "-c", "-d", "-f", "+match", "-g"), searchParallel(pattern, 1, 2, pool, 3));
+            assertEquals(List.of("+match", "+match"), searchParallel(pattern, 0, 0, pool, 1));
+        }
+    }
+
+    @Test
+    void testMatchesLineByLineSearch() throws IOException {
+        Random random = new Random(42);
+        String[] words = {"alpha", "Beta", "гамма", "beta", "betamax", "", " "};
+        String[] patterns = {"beta", "гамма", "b.ta$", "^alpha|max"};
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (int iteration = 0; iteration < 300; iteration++) {
+                StringBuilder content = new StringBuilder();
+                int lines = random.nextInt(40);
+                for (int i = 0; i < lines; i++) {
+                    for (int j = random.nextInt(4); j > 0; j--) {
+                        content.append(words[random.nextInt(words.length)]).append(' ');
+                    }
+                    content.append('\n');
+                }
+                if (random.nextBoolean()) {
+                    content.append(words[random.nextInt(words.length)]);
+                }
+                Files.writeString(testFile, content);
+                PatternOptions options = new PatternOptions(false, random.nextBoolean(), random.nextBoolean());
+                GrepPattern pattern = GrepPattern.compile(patterns[random.nextInt(patterns.length)], options);
+                int before = random.nextInt(3);
+                int after = random.nextInt(3);
+                long chunkSize = 1 + random.nextInt(60);
+                long maxCount = random.nextBoolean() ? Long.MAX_VALUE : random.nextInt(4);
+
+                assertEquals(searchLines(pattern, before, after, maxCount), searchParallel(pattern, before, after, maxCount, pool, chunkSize),
+                        "chunk " + chunkSize + ", -B " + before + ", -A " + after + ", -m " + maxCount + ", " + options + ": " + content);
+            }
+        }
+    }
+}
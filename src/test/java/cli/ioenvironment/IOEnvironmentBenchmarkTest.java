@@ -0,0 +1,68 @@
+package cli.ioenvironment;
+
+import cli.benchmark.Benchmarks;
+import cli.pipelineexecutor.RingBufferPipe;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the per-line cost of reading and writing lines through IOEnvironmentImpl attached to a pipe.
+ */
+@Tag(Benchmarks.TAG)
+class IOEnvironmentBenchmarkTest {
+    private static final int LINES = 1_000_000;
+    private static final int RUNS = 4;
+    private static final String LINE = Benchmarks.LOG_LINE;
+
+    private static void writeLines(FlushPolicy flushPolicy) throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Long> reader = executor.submit(() -> pipe.source().transferTo(OutputStream.nullOutputStream()));
+            IOEnvironmentImpl ioEnvironment = new IOEnvironmentImpl(InputStream.nullInputStream(), pipe.sink(),
+                    OutputStream.nullOutputStream(), flushPolicy);
+            for (int i = 0; i < LINES; i++) {
+                ioEnvironment.writeOutput(LINE);
+            }
+            ioEnvironment.flush();
+            pipe.sink().close();
+            long transferred = reader.get();
+            assertEquals((long) LINES * LINE.length(), transferred);
+        }
+    }
+
+    private static void readLines(byte[] input) throws IOException {
+        IOEnvironmentImpl ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream(input),
+                OutputStream.nullOutputStream(), OutputStream.nullOutputStream());
+        int lines = 0;
+        while (ioEnvironment.readLine() != null) {
+            lines++;
+        }
+        assertEquals(LINES, lines);
+    }
+
+    private static double nanosPerLine(Benchmarks.Run run) throws Exception {
+        return Benchmarks.bestSeconds(RUNS, run) * 1e9 / LINES;
+    }
+
+    @Test
+    void testPerLineCost() throws Exception {
+        double always = nanosPerLine(() -> writeLines(FlushPolicy.ALWAYS));
+        double line = nanosPerLine(() -> writeLines(FlushPolicy.LINE));
+        double block = nanosPerLine(() -> writeLines(FlushPolicy.BLOCK));
+        byte[] input = LINE.repeat(LINES).getBytes();
+        double read = nanosPerLine(() -> readLines(input));
+
+        Benchmarks.report("writeOutput per line: ALWAYS %.0f ns, LINE %.0f ns, BLOCK %.0f ns; readLine %.0f ns",
+                always, line, block, read);
+    }
+}
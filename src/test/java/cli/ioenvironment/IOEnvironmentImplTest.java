@@ -1,11 +1,21 @@
 package cli.ioenvironment;
 
+import cli.exceptions.BrokenPipeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,4 +66,140 @@ class IOEnvironmentImplTest {
         ioEnvironment.writeError("");
         assertEquals("", testErrorStream.toString());
     }
+
+    @Test
+    void testErrorsAreNotWrittenAfterBrokenPipe() {
+        OutputStream brokenOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new BrokenPipeException();
+            }
+        };
+        ioEnvironment = new IOEnvironmentImpl(testInputStream, brokenOutput, testErrorStream);
+
+        assertThrows(BrokenPipeException.class, () -> ioEnvironment.writeOutput("data"));
+        ioEnvironment.writeError("cannot write data");
+        assertEquals("", testErrorStream.toString());
+    }
+
+    @Test
+    void testTransferToPipeWithoutReadersIsBrokenPipe() throws Exception {
+        Path directory = Files.createTempDirectory("ioTest");
+        Path fifo = directory.resolve("fifo");
+        Path file = directory.resolve("data");
+        try {
+            assertEquals(0, new ProcessBuilder("mkfifo", fifo.toString()).start().waitFor());
+            Files.write(file, new byte[1024 * 1024]);
+            // Opening a FIFO for reading and writing does not wait for a writer
+            RandomAccessFile reader = new RandomAccessFile(fifo.toFile(), "rw");
+            try (FileOutputStream output = new FileOutputStream(fifo.toFile());
+                 FileChannel channel = FileChannel.open(file)) {
+                reader.close();
+                ioEnvironment = new IOEnvironmentImpl(testInputStream, output, testErrorStream);
+
+                assertThrows(BrokenPipeException.class, () -> ioEnvironment.transferFrom(channel));
+                ioEnvironment.writeError("cannot copy file");
+                assertEquals("", testErrorStream.toString());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(fifo);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    void testReadAndWriteBytes() throws IOException {
+        byte[] buffer = new byte[5];
+        assertEquals(5, ioEnvironment.read(buffer, 0, buffer.length));
+        ioEnvironment.writeOutput(buffer, 1, 3);
+        assertEquals("ell", testOutputStream.toString());
+    }
+
+    @Test
+    void testReadAndWriteByteBuffers() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        assertEquals(13, ioEnvironment.read(buffer));
+        assertEquals(-1, ioEnvironment.read(buffer));
+        buffer.flip();
+        ioEnvironment.writeOutput(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals("Hello, world!", testOutputStream.toString());
+    }
+
+    @Test
+    void testForEachLineStopsWhenHandlerReturnsFalse() throws IOException {
+        ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream("a\nb\nc\n".getBytes()), testOutputStream, testErrorStream);
+        List<String> lines = new ArrayList<>();
+
+        assertFalse(ioEnvironment.forEachLine(line -> lines.add(line) && !line.equals("b")));
+        assertEquals(List.of("a", "b"), lines);
+        assertEquals("c", ioEnvironment.readLine());
+    }
+
+    @Test
+    void testBlockFlushPolicyBuffersUntilFlush() throws IOException {
+        ioEnvironment = new IOEnvironmentImpl(testInputStream, testOutputStream, testErrorStream, FlushPolicy.BLOCK);
+        ioEnvironment.writeOutput("first line\n");
+        ioEnvironment.writeOutput("second line\n");
+        assertEquals("", testOutputStream.toString());
+
+        ioEnvironment.flush();
+        assertEquals("first line\nsecond line\n", testOutputStream.toString());
+    }
+
+    @Test
+    void testBlockFlushPolicyFlushesFullBuffer() throws IOException {
+        ioEnvironment = new IOEnvironmentImpl(testInputStream, testOutputStream, testErrorStream, FlushPolicy.BLOCK);
+        String line = "x".repeat(1000) + "\n";
+        for (int i = 0; i < 100; i++) {
+            ioEnvironment.writeOutput(line);
+        }
+        assertTrue(testOutputStream.size() > 0);
+
+        ioEnvironment.flush();
+        assertEquals(line.repeat(100), testOutputStream.toString());
+    }
+
+    @Test
+    void testLineFlushPolicyFlushesOnNewline() throws IOException {
+        ioEnvironment = new IOEnvironmentImpl(testInputStream, testOutputStream, testErrorStream, FlushPolicy.LINE);
+        ioEnvironment.writeOutput("no newline");
+        assertEquals("", testOutputStream.toString());
+
+        ioEnvironment.writeOutput(" yet\n");
+        assertEquals("no newline yet\n", testOutputStream.toString());
+    }
+
+    @Test
+    void testErrorFlushesBufferedOutput() {
+        ioEnvironment = new IOEnvironmentImpl(testInputStream, testOutputStream, testOutputStream, FlushPolicy.BLOCK);
+        assertDoesNotThrow(() -> ioEnvironment.writeOutput("output\n"));
+        ioEnvironment.writeError("error\n");
+        assertEquals("output\nerror\n", testOutputStream.toString());
+    }
+
+    @Test
+    void testReadLongLines() throws IOException {
+        String longLine = "a".repeat(100_000);
+        ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream((longLine + "\n\nb\n" + longLine).getBytes()),
+                testOutputStream, testErrorStream);
+
+        assertEquals(longLine, ioEnvironment.readLine());
+        assertEquals("", ioEnvironment.readLine());
+        assertEquals("b", ioEnvironment.readLine());
+        assertEquals(longLine, ioEnvironment.readLine());
+        assertNull(ioEnvironment.readLine());
+    }
+
+    @Test
+    void testReadLineThenBytes() throws IOException {
+        ioEnvironment = new IOEnvironmentImpl(new ByteArrayInputStream("header\nbody".getBytes()), testOutputStream, testErrorStream);
+
+        assertEquals("header", ioEnvironment.readLine());
+        byte[] buffer = new byte[16];
+        assertEquals(4, ioEnvironment.read(buffer, 0, buffer.length));
+        assertEquals("body", new String(buffer, 0, 4));
+        assertEquals(-1, ioEnvironment.read(buffer, 0, buffer.length));
+    }
 }
@@ -0,0 +1,72 @@
+package cli.ioenvironment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineEncoderTest {
+    private static final String NL = System.lineSeparator();
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final LineEncoder encoder = new LineEncoder(output::write);
+
+    @Test
+    void testEncodesSpansOfDifferentSequences() throws IOException {
+        CharBuffer line = CharBuffer.wrap("xxпривет мирxx").position(2).slice();
+
+        encoder.append(line, 0, 6).append(" ").append(new StringBuilder("日本語"), 1, 3);
+        assertEquals(0, output.size());
+        encoder.endLine();
+
+        assertEquals("привет 本語" + NL, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSurrogatePairSplitBetweenSpans() throws IOException {
+        String emoji = "a😀b";
+
+        encoder.append(emoji, 0, 2).append(emoji, 2, 4).endLine();
+
+        assertEquals(emoji + NL, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLoneSurrogateIsReplaced() throws IOException {
+        encoder.append("a\uD83Db\uDE00").append("\uD83D").endLine();
+
+        assertEquals("a?b??" + NL, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLineLongerThanBuffers() throws IOException {
+        String line = "ж".repeat(50_000);
+
+        encoder.append(line);
+        encoder.endLine();
+
+        assertEquals(line + NL, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEncodesWithOtherCharset() throws IOException {
+        Charset charset = Charset.forName("windows-1251");
+        LineEncoder encoder = new LineEncoder(output::write, charset);
+        String line = "привет ".repeat(5_000);
+
+        encoder.append(line).endLine();
+        encoder.append("a😀", 0, 2).append("a😀b", 2, 4).endLine();
+
+        assertEquals(line + NL + "a?b" + NL, output.toString(charset));
+    }
+
+    @Test
+    void testInvalidRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> encoder.append("abc", 2, 4));
+    }
+}
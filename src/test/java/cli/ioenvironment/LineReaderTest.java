@@ -0,0 +1,86 @@
+package cli.ioenvironment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineReaderTest {
+
+    private static LineReader reader(String content) {
+        return new LineReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testDecodesUtf8Lines() throws IOException {
+        LineReader lineReader = reader("привет мир\n日本語\n😀");
+
+        assertEquals("привет мир", lineReader.readLine());
+        assertEquals(19, lineReader.lastLineByteCount());
+        assertEquals("日本語", lineReader.readLine());
+        assertEquals(9, lineReader.lastLineByteCount());
+        assertEquals("😀", lineReader.readLine());
+        assertEquals(4, lineReader.lastLineByteCount());
+        assertNull(lineReader.readLine());
+    }
+
+    @Test
+    void testCharacterSplitBetweenReads() throws IOException {
+        byte[] content = "ёж\nёлка\n".getBytes(StandardCharsets.UTF_8);
+        InputStream byteByByte = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return position < content.length ? content[position++] & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                int next = read();
+                if (next == -1) {
+                    return -1;
+                }
+                buffer[offset] = (byte) next;
+                return 1;
+            }
+        };
+        LineReader lineReader = new LineReader(byteByByte, StandardCharsets.UTF_8);
+
+        assertEquals("ёж", lineReader.readLine());
+        assertEquals("ёлка", lineReader.readLine());
+        assertNull(lineReader.readLine());
+    }
+
+    @Test
+    void testMalformedInputIsReplaced() throws IOException {
+        LineReader lineReader = new LineReader(new ByteArrayInputStream(new byte[]{'a', (byte) 0xFF, 'b', '\n'}),
+                StandardCharsets.UTF_8);
+
+        assertEquals("a�b", lineReader.readLine());
+        assertEquals(3, lineReader.lastLineByteCount());
+    }
+
+    @Test
+    void testViewIsReusedBetweenLines() throws IOException {
+        LineReader lineReader = reader("first\nsecond\n");
+
+        CharSequence first = lineReader.readLineView();
+        assertEquals("first", first.toString());
+        CharSequence second = lineReader.readLineView();
+        assertEquals("second", second.toString());
+        assertNull(lineReader.readLineView());
+    }
+
+    @Test
+    void testReadRemainingAfterLine() throws IOException {
+        LineReader lineReader = reader("header\nтело\nконец");
+
+        assertEquals("header", lineReader.readLine());
+        assertEquals("тело\nконец", lineReader.readRemaining());
+    }
+}
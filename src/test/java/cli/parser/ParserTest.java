@@ -3,6 +3,7 @@ package cli.parser;
 import cli.environment.Environment;
 import cli.exceptions.ParseException.EmptyPipeException;
 import cli.model.Command;
+import cli.model.CommandOptions;
 import cli.model.ParsedInput;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -244,6 +245,21 @@ class ParserTest {
         assertTrue(command2.options().containsOption("n"));
 
      }
+
+    @Test
+    void testParseOptionOccurrences() {
+        Command command = parser.parse("grep -B 1 -iA=2 -e x -e y --color file").commands().getFirst();
+
+        assertEquals(List.of("1", "x", "y", "file"), command.args());
+        assertEquals(List.of(
+                new CommandOptions.Occurrence("B", null, 0),
+                new CommandOptions.Occurrence("i", null, -1),
+                new CommandOptions.Occurrence("A", "2", -1),
+                new CommandOptions.Occurrence("e", null, 1),
+                new CommandOptions.Occurrence("e", null, 2),
+                new CommandOptions.Occurrence("color", null, -1)
+        ), command.options().getOccurrences());
+    }
 }
 
 class MockEnvironment implements Environment {
@@ -258,4 +274,5 @@ class MockEnvironment implements Environment {
     public void setVariable(String name, String value) {
         variables.put(name, value);
     }
+
 }
@@ -1,15 +1,22 @@
 package cli.pipelineexecutor;
 
-import cli.commandexecutor.CommandExecutor;
+import cli.commandexecutor.CommandExecutorImpl;
+import cli.commandexecutor.ExternalCommandExecutor;
+import cli.environment.EnvironmentImpl;
 import cli.exceptions.ExitCommandException;
+import cli.exceptions.TerminalErrorException;
 import cli.model.Command;
 import cli.model.CommandOptions;
 import cli.model.ParsedInput;
+import cli.parser.ParserImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,10 +93,184 @@ public class PipelineExecutorTest {
         assertEquals("hello world", output.toString().trim());
         assertTrue(errorOutput.toString().isEmpty());
     }
+
+    @Test
+    void testStageThreadIsNamedAfterCommand() throws Exception {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_thread_name", List.of(), new CommandOptions()),
+                new Command("write_input", List.of(), new CommandOptions())
+        ));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pipelineExecutor.execute(input, new ByteArrayInputStream(new byte[0]), output, new PrintStream(errorOutput));
+
+        assertEquals("write_thread_name", output.toString());
+    }
+
+    @Test
+    void testCustomSchedulerIsReusedAcrossLines() throws Exception {
+        try (ExecutorService scheduler = Executors.newFixedThreadPool(2)) {
+            PipelineExecutor executor = new PipelineExecutorImpl(commandExecutor, scheduler);
+            ParsedInput input = new ParsedInput(List.of(
+                    new Command("write_arg", List.of("a"), new CommandOptions()),
+                    new Command("write_input", List.of(), new CommandOptions())
+            ));
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            for (int i = 0; i < 3; i++) {
+                executor.execute(input, new ByteArrayInputStream(new byte[0]), output, new PrintStream(errorOutput));
+            }
+
+            assertEquals("aaa", output.toString());
+            assertFalse(scheduler.isShutdown());
+        }
+    }
+
+    @Test
+    void testSingleCommandRunsOnCallingThread() throws Exception {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_thread_name", List.of(), new CommandOptions())
+        ));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pipelineExecutor.execute(input, new ByteArrayInputStream(new byte[0]), output, new PrintStream(errorOutput));
+
+        assertEquals(Thread.currentThread().getName(), output.toString());
+    }
+
+    @Test
+    void testSingleCommandFailure() {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("unknown", List.of(), new CommandOptions())
+        ));
+
+        assertThrows(TerminalErrorException.class, () -> pipelineExecutor.execute(input,
+                new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new PrintStream(errorOutput)));
+    }
+
+    @Test
+    void testExitInSingleCommand() {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("exit", List.of(), new CommandOptions())
+        ));
+
+        assertThrows(ExitCommandException.class, () -> pipelineExecutor.execute(input,
+                new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new PrintStream(errorOutput)));
+        assertTrue(commandExecutor.isExitCalled());
+    }
+
+    @Test
+    void testExitInPipeline() {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_arg", List.of("hello"), new CommandOptions()),
+                new Command("exit", List.of(), new CommandOptions())
+        ));
+
+        assertThrows(ExitCommandException.class, () -> pipelineExecutor.execute(input,
+                new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new PrintStream(errorOutput)));
+        assertTrue(commandExecutor.isExitCalled());
+    }
+
+    @Test
+    void testConsecutiveExternalCommandsRunAsOneStage() throws Exception {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_arg", List.of("hello"), new CommandOptions()),
+                new Command("ext_first", List.of(), new CommandOptions()),
+                new Command("ext_second", List.of(), new CommandOptions()),
+                new Command("write_input_and_arg", List.of(" world"), new CommandOptions())
+        ));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pipelineExecutor.execute(input, new ByteArrayInputStream(new byte[0]), output, new PrintStream(errorOutput));
+
+        assertEquals("hello[ext_first | ext_second] world", output.toString());
+        assertEquals(List.of(List.of("ext_first", "ext_second")), commandExecutor.getExternalPipelines());
+    }
+
+    @Test
+    void testUpstreamStopsWhenDownstreamFinishes() throws Exception {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_forever", List.of(), new CommandOptions()),
+                new Command("copy_input", List.of(), new CommandOptions()),
+                new Command("write_first_byte", List.of(), new CommandOptions())
+        ));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pipelineExecutor.execute(input, new ByteArrayInputStream(new byte[0]), output, new PrintStream(errorOutput));
+
+        assertEquals("y", output.toString());
+        assertTrue(errorOutput.toString().isEmpty());
+    }
+
+    @Test
+    void testExternalUpstreamStopsWhenBuiltInStopsReading() {
+        ParsedInput input = new ParserImpl(new EnvironmentImpl()).parse("yes | grep -m 2 y");
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            try (ExecutorService scheduler = Executors.newVirtualThreadPerTaskExecutor();
+                 PipelineExecutorImpl executor = new PipelineExecutorImpl(new CommandExecutorImpl(new EnvironmentImpl(), scheduler), scheduler)) {
+                // The deadlock depended on scheduling, so the line is repeated
+                for (int i = 0; i < 20; i++) {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    executor.execute(input, InputStream.nullInputStream(), output, new PrintStream(errorOutput));
+                    assertEquals("y\ny\n", output.toString());
+                }
+            }
+        });
+        assertTrue(errorOutput.toString().isEmpty());
+    }
+
+    @Test
+    void testExternalRunStopsWhenBuiltInDoesNotReadItsInput() {
+        ParsedInput input = new ParserImpl(new EnvironmentImpl()).parse("yes | tr y n | echo done");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (ExecutorService scheduler = Executors.newVirtualThreadPerTaskExecutor();
+                 PipelineExecutorImpl executor = new PipelineExecutorImpl(new CommandExecutorImpl(new EnvironmentImpl(), scheduler), scheduler)) {
+                executor.execute(input, InputStream.nullInputStream(), output, new PrintStream(errorOutput));
+            }
+        });
+
+        assertEquals("done" + System.lineSeparator(), output.toString());
+        assertTrue(errorOutput.toString().isEmpty());
+    }
+
+    @Test
+    void testLastCommandFailureIsReportedAfterUpstreamStopped() {
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("write_forever", List.of(), new CommandOptions()),
+                new Command("unknown", List.of(), new CommandOptions())
+        ));
+
+        assertThrows(TerminalErrorException.class, () -> pipelineExecutor.execute(input,
+                new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new PrintStream(errorOutput)));
+    }
 }
 
-class MockCommandExecutor implements CommandExecutor {
+class MockCommandExecutor implements ExternalCommandExecutor {
     private boolean exitCalled = false;
+    private final List<List<String>> externalPipelines = new java.util.ArrayList<>();
+
+    @Override
+    public boolean isExternal(Command command) {
+        return command.name().startsWith("ext_");
+    }
+
+    @Override
+    public int executeExternalPipeline(List<Command> commands, InputStream input, OutputStream output, OutputStream error) {
+        List<String> names = commands.stream().map(Command::name).toList();
+        externalPipelines.add(names);
+        try {
+            input.transferTo(output);
+            output.write(("[" + String.join(" | ", names) + "]").getBytes());
+            return 0;
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    public List<List<String>> getExternalPipelines() {
+        return externalPipelines;
+    }
 
     @Override
     public int execute(Command command, InputStream input, OutputStream output, OutputStream error) throws ExitCommandException {
@@ -109,6 +290,24 @@ class MockCommandExecutor implements CommandExecutor {
                     output.write(s.getBytes());
                     return 0;
                 }
+                case "write_forever" -> {
+                    byte[] chunk = "y\n".repeat(1024).getBytes();
+                    while (true) {
+                        output.write(chunk);
+                    }
+                }
+                case "copy_input" -> {
+                    input.transferTo(output);
+                    return 0;
+                }
+                case "write_first_byte" -> {
+                    output.write(input.read());
+                    return 0;
+                }
+                case "write_thread_name" -> {
+                    output.write(Thread.currentThread().getName().getBytes());
+                    return 0;
+                }
                 case "write_arg" -> {
                     StringBuilder sb = new StringBuilder();
                     for (String args : command.args()) {
@@ -0,0 +1,93 @@
+package cli.pipelineexecutor;
+
+import cli.benchmark.Benchmarks;
+import cli.commandexecutor.CommandExecutor;
+import cli.model.Command;
+import cli.model.CommandOptions;
+import cli.model.ParsedInput;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures the per-line overhead of short pipelines like {@code echo a | wc}.
+ */
+@Tag(Benchmarks.TAG)
+class PipelineLatencyBenchmarkTest {
+    private static final int WARMUP_LINES = 2_000;
+    private static final int MEASURED_LINES = 20_000;
+
+    private static final CommandExecutor ECHO_AND_WC = (command, input, output, error) -> {
+        try {
+            switch (command.name()) {
+                case "echo" -> output.write("a\n".getBytes());
+                case "wc" -> output.write(Integer.toString(input.readAllBytes().length).getBytes());
+                default -> {
+                    return 1;
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            return 1;
+        }
+    };
+
+    private static final ParsedInput ECHO_PIPE_WC = new ParsedInput(List.of(
+            new Command("echo", List.of("a"), new CommandOptions()),
+            new Command("wc", List.of(), new CommandOptions())
+    ));
+
+    private static final Command ECHO = new Command("echo", List.of("a"), new CommandOptions());
+
+    private static double averageMicros(Benchmarks.Run line) throws Exception {
+        for (int i = 0; i < WARMUP_LINES; i++) {
+            line.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_LINES; i++) {
+            line.run();
+        }
+        return (System.nanoTime() - start) / 1e3 / MEASURED_LINES;
+    }
+
+    @Test
+    void testSharedSchedulerPerLineOverhead() throws Exception {
+        double freshPoolMicros = averageMicros(() -> {
+            try (PipelineExecutorImpl executor = new PipelineExecutorImpl(ECHO_AND_WC, Executors.newFixedThreadPool(2))) {
+                executor.execute(ECHO_PIPE_WC, InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream());
+            }
+        });
+        double sharedMicros;
+        try (PipelineExecutorImpl executor = new PipelineExecutorImpl(ECHO_AND_WC)) {
+            sharedMicros = averageMicros(() ->
+                    executor.execute(ECHO_PIPE_WC, InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream()));
+        }
+
+        Benchmarks.report("echo a | wc: fresh thread pool %.1f us/line, shared virtual threads %.1f us/line",
+                freshPoolMicros, sharedMicros);
+    }
+
+    @Test
+    void testSingleCommandPerLineOverhead() throws Exception {
+        double scheduledMicros;
+        try (ExecutorService scheduler = Executors.newVirtualThreadPerTaskExecutor()) {
+            scheduledMicros = averageMicros(() -> scheduler.submit(() -> ECHO_AND_WC.execute(ECHO,
+                    InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream())).get());
+        }
+        double inlineMicros;
+        try (PipelineExecutorImpl executor = new PipelineExecutorImpl(ECHO_AND_WC)) {
+            ParsedInput line = new ParsedInput(List.of(ECHO));
+            inlineMicros = averageMicros(() ->
+                    executor.execute(line, InputStream.nullInputStream(), OutputStream.nullOutputStream(), OutputStream.nullOutputStream()));
+        }
+
+        Benchmarks.report("single command: scheduled task %.2f us/line, inline %.2f us/line",
+                scheduledMicros, inlineMicros);
+    }
+}
@@ -0,0 +1,76 @@
+package cli.pipelineexecutor;
+
+import cli.benchmark.Benchmarks;
+import cli.commandexecutor.CommandExecutor;
+import cli.model.Command;
+import cli.model.CommandOptions;
+import cli.model.ParsedInput;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pushes gigabytes of data through a three-stage pipeline of in-memory commands:
+ * a generator, a copying filter and a byte counter.
+ */
+@Tag(Benchmarks.TAG)
+class PipelineThroughputBenchmarkTest {
+    private static final long TOTAL_BYTES = 4L * 1024 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final CommandExecutor IN_MEMORY_COMMANDS = (command, input, output, error) -> {
+        try {
+            switch (command.name()) {
+                case "generate" -> {
+                    byte[] chunk = new byte[CHUNK_SIZE];
+                    for (long written = 0; written < TOTAL_BYTES; written += chunk.length) {
+                        output.write(chunk);
+                    }
+                }
+                case "copy" -> input.transferTo(output);
+                case "count" -> output.write(Long.toString(countBytes(input)).getBytes());
+                default -> {
+                    return 1;
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            return 1;
+        }
+    };
+
+    private static long countBytes(InputStream input) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    @Test
+    void testThreeStagePipelineThroughput() throws Exception {
+        PipelineExecutor pipelineExecutor = new PipelineExecutorImpl(IN_MEMORY_COMMANDS);
+        ParsedInput input = new ParsedInput(List.of(
+                new Command("generate", List.of(), new CommandOptions()),
+                new Command("copy", List.of(), new CommandOptions()),
+                new Command("count", List.of(), new CommandOptions())
+        ));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        double seconds = Benchmarks.bestSeconds(1, () ->
+                pipelineExecutor.execute(input, InputStream.nullInputStream(), output, OutputStream.nullOutputStream()));
+
+        Benchmarks.report("generate | copy | count: %d MiB in %.2f s, %.0f MiB/s",
+                TOTAL_BYTES >> 20, seconds, Benchmarks.mibPerSecond(TOTAL_BYTES, seconds));
+        assertEquals(Long.toString(TOTAL_BYTES), output.toString());
+    }
+}
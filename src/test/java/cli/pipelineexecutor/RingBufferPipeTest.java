@@ -0,0 +1,90 @@
+package cli.pipelineexecutor;
+
+import cli.exceptions.BrokenPipeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferPipeTest {
+
+    @Test
+    void testReadWhatWasWritten() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        pipe.sink().write("hello".getBytes());
+        pipe.sink().close();
+
+        assertEquals("hello", new String(pipe.source().readAllBytes()));
+    }
+
+    @Test
+    void testEofAfterWriterClosed() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        pipe.sink().write('a');
+        pipe.sink().close();
+
+        assertEquals('a', pipe.source().read());
+        assertEquals(-1, pipe.source().read());
+        assertEquals(-1, pipe.source().read(new byte[4], 0, 4));
+        assertFalse(pipe.isBroken());
+    }
+
+    @Test
+    void testDataLargerThanCapacityWrapsAround() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(7);
+        byte[] data = new byte[100_000];
+        new Random(42).nextBytes(data);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> writer = executor.submit(() -> {
+                try (OutputStream sink = pipe.sink()) {
+                    for (int offset = 0; offset < data.length; offset += 13) {
+                        sink.write(data, offset, Math.min(13, data.length - offset));
+                    }
+                }
+                return null;
+            });
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            byte[] buffer = new byte[5];
+            int read;
+            while ((read = pipe.source().read(buffer, 0, buffer.length)) != -1) {
+                received.write(buffer, 0, read);
+            }
+            writer.get();
+            assertArrayEquals(data, received.toByteArray());
+        }
+    }
+
+    @Test
+    void testWriterFailsWhenReaderClosed() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> writer = executor.submit(() -> {
+                pipe.sink().write(new byte[1024]);
+                return null;
+            });
+            InputStream source = pipe.source();
+            assertEquals(0, source.read());
+            source.close();
+
+            Exception exception = assertThrows(Exception.class, writer::get);
+            assertInstanceOf(BrokenPipeException.class, exception.getCause());
+            assertTrue(pipe.isReaderClosed());
+            assertTrue(pipe.isBroken());
+        }
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferPipe(0));
+    }
+}